@@ -1,37 +1,40 @@
 package com.devsuperior.dscommerce.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
-import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
 import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
@@ -40,18 +43,30 @@ import org.springframework.security.oauth2.server.authorization.token.Delegating
 import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
 import org.springframework.security.oauth2.server.authorization.token.JwtGenerator;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2AccessTokenGenerator;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2RefreshTokenGenerator;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
 
+import com.devsuperior.dscommerce.config.customgrant.BoundedPasswordVerifier;
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationConverter;
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationProvider;
 import com.devsuperior.dscommerce.config.customgrant.CustomUserAuthorities;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.devsuperior.dscommerce.config.customgrant.CustomUserAuthoritiesMixin;
+import com.devsuperior.dscommerce.config.customgrant.PasswordEncoderProfiles;
+import com.devsuperior.dscommerce.config.customgrant.TokenEndpointErrorResponseHandler;
+import com.devsuperior.dscommerce.config.keys.JwkSetKeyStore;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimitFilter;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimitKey;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimitRule;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class AuthorizationServerConfig {
 
@@ -64,20 +79,69 @@ public class AuthorizationServerConfig {
 	@Value("${security.jwt.duration}")
 	private Integer jwtDurationSeconds;
 
+	@Value("${security.jwt.refresh-duration}")
+	private Integer refreshTokenDurationSeconds;
+
+	@Value("${security.jwt.keys.file}")
+	private String jwtKeysFile;
+
+	@Value("${security.password.encoder}")
+	private String passwordEncoderId;
+
+	@Value("${security.password.bcrypt.strength}")
+	private Integer bcryptStrength;
+
+	@Value("${security.password.verifier.threads}")
+	private Integer passwordVerifierThreads;
+
+	@Value("${security.password.verifier.queue-capacity}")
+	private Integer passwordVerifierQueueCapacity;
+
+	@Value("${security.password.verifier.max-wait-ms}")
+	private Long passwordVerifierMaxWaitMillis;
+
+	@Value("${rate-limit.enabled}")
+	private Boolean rateLimitEnabled;
+
+	@Value("${rate-limit.token.client}")
+	private String tokenClientRateLimit;
+
+	@Value("${rate-limit.token.user}")
+	private String tokenUserRateLimit;
+
+	@Value("${rate-limit.token.ip}")
+	private String tokenIpRateLimit;
+
 	@Autowired
 	private UserDetailsService userDetailsService;
 
+	@Autowired
+	private UserDetailsPasswordService userDetailsPasswordService;
+
 	@Bean
 	@Order(2)
-	public SecurityFilterChain asSecurityFilterChain(HttpSecurity http) throws Exception {
+	public SecurityFilterChain asSecurityFilterChain(HttpSecurity http, OAuth2AuthorizationService authorizationService,
+			BoundedPasswordVerifier passwordVerifier, RateLimiter rateLimiter, ObjectMapper objectMapper,
+			MeterRegistry meterRegistry) throws Exception {
 
 		OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
 
+		if (rateLimitEnabled) {
+			Map<RateLimitKey, RateLimitRule> rules = new EnumMap<>(RateLimitKey.class);
+			rules.put(RateLimitKey.CLIENT, RateLimitRule.parse(tokenClientRateLimit));
+			rules.put(RateLimitKey.USER, RateLimitRule.parse(tokenUserRateLimit));
+			rules.put(RateLimitKey.IP, RateLimitRule.parse(tokenIpRateLimit));
+			// ahead of client authentication, so refused requests never reach the BCrypt checks
+			http.addFilterBefore(new RateLimitFilter("token", HttpMethod.POST, "/oauth2/token", rules, rateLimiter,
+					objectMapper, meterRegistry), AbstractPreAuthenticatedProcessingFilter.class);
+		}
+
 		// @formatter:off
 		http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
 			.tokenEndpoint(tokenEndpoint -> tokenEndpoint
 				.accessTokenRequestConverter(new CustomPasswordAuthenticationConverter())
-				.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService(), tokenGenerator(), userDetailsService, passwordEncoder())));
+				.authenticationProvider(new CustomPasswordAuthenticationProvider(authorizationService, tokenGenerator(), userDetailsService, passwordVerifier, userDetailsPasswordService))
+				.errorResponseHandler(new TokenEndpointErrorResponseHandler()));
 
 		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
 		// @formatter:on
@@ -85,9 +149,35 @@ public class AuthorizationServerConfig {
 		return http.build();
 	}
 
+	/**
+	 * Authorizations live in {@code oauth2_authorization}, so refresh tokens survive restarts and
+	 * work on every node. The JSON mapper knows {@link CustomUserAuthorities}, which the password
+	 * grant keeps as details of the stored user principal, and {@link Long}, the type of the user id
+	 * kept there and in the {@code user_id} claim: the Spring Security modules write every value with
+	 * its type and only read back the types they allow.
+	 */
 	@Bean
-	public OAuth2AuthorizationService authorizationService() {
-		return new InMemoryOAuth2AuthorizationService();
+	public OAuth2AuthorizationService authorizationService(JdbcTemplate jdbcTemplate,
+			RegisteredClientRepository registeredClientRepository) {
+		ObjectMapper objectMapper = new ObjectMapper();
+		ClassLoader classLoader = JdbcOAuth2AuthorizationService.class.getClassLoader();
+		objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+		objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+		objectMapper.addMixIn(CustomUserAuthorities.class, CustomUserAuthoritiesMixin.class);
+		objectMapper.addMixIn(Long.class, LongMixin.class);
+
+		JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper rowMapper =
+				new JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper(registeredClientRepository);
+		rowMapper.setObjectMapper(objectMapper);
+		JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper parametersMapper =
+				new JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper();
+		parametersMapper.setObjectMapper(objectMapper);
+
+		JdbcOAuth2AuthorizationService authorizationService = new JdbcOAuth2AuthorizationService(jdbcTemplate,
+				registeredClientRepository);
+		authorizationService.setAuthorizationRowMapper(rowMapper);
+		authorizationService.setAuthorizationParametersMapper(parametersMapper);
+		return authorizationService;
 	}
 
 	@Bean
@@ -97,19 +187,27 @@ public class AuthorizationServerConfig {
 
 	@Bean
 	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+		return PasswordEncoderProfiles.delegating(passwordEncoderId, bcryptStrength);
+	}
+
+	@Bean
+	public BoundedPasswordVerifier passwordVerifier(MeterRegistry meterRegistry) {
+		return new BoundedPasswordVerifier(passwordEncoder(), passwordVerifierThreads, passwordVerifierQueueCapacity,
+				passwordVerifierMaxWaitMillis, meterRegistry);
 	}
 
 	@Bean
 	public RegisteredClientRepository registeredClientRepository() {
 		// @formatter:off
+		// stable id: stored authorizations reference the client by it across restarts and nodes
 		RegisteredClient registeredClient = RegisteredClient
-			.withId(UUID.randomUUID().toString())
+			.withId(clientId)
 			.clientId(clientId)
 			.clientSecret(passwordEncoder().encode(clientSecret))
 			.scope("read")
 			.scope("write")
 			.authorizationGrantType(new AuthorizationGrantType("password"))
+			.authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
 			.tokenSettings(tokenSettings())
 			.clientSettings(clientSettings())
 			.build();
@@ -124,6 +222,8 @@ public class AuthorizationServerConfig {
 		return TokenSettings.builder()
 			.accessTokenFormat(OAuth2TokenFormat.SELF_CONTAINED)
 			.accessTokenTimeToLive(Duration.ofSeconds(jwtDurationSeconds))
+			.refreshTokenTimeToLive(Duration.ofSeconds(refreshTokenDurationSeconds))
+			.reuseRefreshTokens(false)
 			.build();
 		// @formatter:on
 	}
@@ -144,21 +244,28 @@ public class AuthorizationServerConfig {
 		JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
 		jwtGenerator.setJwtCustomizer(tokenCustomizer());
 		OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
-		return new DelegatingOAuth2TokenGenerator(jwtGenerator, accessTokenGenerator);
+		OAuth2RefreshTokenGenerator refreshTokenGenerator = new OAuth2RefreshTokenGenerator();
+		return new DelegatingOAuth2TokenGenerator(jwtGenerator, accessTokenGenerator, refreshTokenGenerator);
 	}
 
 	@Bean
 	public OAuth2TokenCustomizer<JwtEncodingContext> tokenCustomizer() {
 		return context -> {
-			OAuth2ClientAuthenticationToken principal = context.getPrincipal();
-			CustomUserAuthorities user = (CustomUserAuthorities) principal.getDetails();
-			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority()).toList();
+			context.getJwsHeader().keyId(jwkSource().getSigningKeyId());
+			// the user principal of the password grant, also restored from the store on refresh
+			CustomUserAuthorities user = (CustomUserAuthorities) context.getPrincipal().getDetails();
+			// a mutable list: the claims are stored with their types and read back only if allowed
+			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority())
+					.collect(Collectors.toCollection(ArrayList::new));
 			if (context.getTokenType().getValue().equals("access_token")) {
 				// @formatter:off
 				context.getClaims()
 					.claim("authorities", authorities)
 					.claim("username", user.getUsername());
 				// @formatter:on
+				if (user.getUserId() != null) {
+					context.getClaims().claim("user_id", user.getUserId());
+				}
 			}
 		};
 	}
@@ -169,28 +276,16 @@ public class AuthorizationServerConfig {
 	}
 
 	@Bean
-	public JWKSource<SecurityContext> jwkSource() {
-		RSAKey rsaKey = generateRsa();
-		JWKSet jwkSet = new JWKSet(rsaKey);
-		return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
-	}
-
-	private static RSAKey generateRsa() {
-		KeyPair keyPair = generateRsaKey();
-		RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-		RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-		return new RSAKey.Builder(publicKey).privateKey(privateKey).keyID(UUID.randomUUID().toString()).build();
+	public JwkSetKeyStore jwkSource() {
+		if (jwtKeysFile.isBlank()) {
+			throw new IllegalStateException("security.jwt.keys.file must name the signing key file");
+		}
+		return JwkSetKeyStore.loadOrCreate(Paths.get(jwtKeysFile));
 	}
 
-	private static KeyPair generateRsaKey() {
-		KeyPair keyPair;
-		try {
-			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-			keyPairGenerator.initialize(2048);
-			keyPair = keyPairGenerator.generateKeyPair();
-		} catch (Exception ex) {
-			throw new IllegalStateException(ex);
-		}
-		return keyPair;
+	/**
+	 * Empty mixin; registering it is what allows {@link Long} through the allowlist.
+	 */
+	abstract static class LongMixin {
 	}
 }
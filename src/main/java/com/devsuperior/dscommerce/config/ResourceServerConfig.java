@@ -1,27 +1,49 @@
 package com.devsuperior.dscommerce.config;
 
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
 
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.Role;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.config.Customizer;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.CachingJwtAuthenticationManager;
+import com.devsuperior.dscommerce.config.authorization.RequireRole;
+import com.devsuperior.dscommerce.config.authorization.RoleMaskAuthorizationManager;
+import com.devsuperior.dscommerce.config.authorization.RoleMaskJwtAuthenticationConverter;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimitFilter;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimitKey;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimitRule;
+import com.devsuperior.dscommerce.config.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -30,6 +52,18 @@ public class ResourceServerConfig {
 	@Value("${cors.origins}")
 	private String corsOrigins;
 
+	@Value("${security.jwt.cache.max-entries}")
+	private Integer jwtCacheMaxEntries;
+
+	@Value("${rate-limit.enabled}")
+	private Boolean rateLimitEnabled;
+
+	@Value("${rate-limit.orders.user}")
+	private String ordersUserRateLimit;
+
+	@Value("${rate-limit.orders.ip}")
+	private String ordersIpRateLimit;
+
 	@Bean
 	@Profile("test")
 	@Order(1)
@@ -42,24 +76,43 @@ public class ResourceServerConfig {
 
 	@Bean
 	@Order(3)
-	public SecurityFilterChain rsSecurityFilterChain(HttpSecurity http) throws Exception {
+	public SecurityFilterChain rsSecurityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder,
+			MeterRegistry meterRegistry, RateLimiter rateLimiter, ObjectMapper objectMapper) throws Exception {
+
+		CachingJwtAuthenticationManager jwtAuthenticationManager = new CachingJwtAuthenticationManager(jwtDecoder,
+				roleMaskJwtAuthenticationConverter(), jwtCacheMaxEntries, meterRegistry);
 
 		http.csrf(csrf -> csrf.disable());
-		http.authorizeHttpRequests((authorize) -> authorize.anyRequest().permitAll());
-		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(Customizer.withDefaults()));
+		// health stays public for probes; every other actuator endpoint is admin only
+		http.authorizeHttpRequests((authorize) -> authorize
+				.requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+				.requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority(AccessRole.ADMIN.getAuthority())
+				.anyRequest().permitAll());
+		http.oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer
+				.jwt(jwt -> jwt.authenticationManager(jwtAuthenticationManager)));
 		http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
+
+		if (rateLimitEnabled) {
+			Map<RateLimitKey, RateLimitRule> rules = new EnumMap<>(RateLimitKey.class);
+			rules.put(RateLimitKey.USER, RateLimitRule.parse(ordersUserRateLimit));
+			rules.put(RateLimitKey.IP, RateLimitRule.parse(ordersIpRateLimit));
+			// after bearer authentication, so the user bucket is keyed by the token's username
+			http.addFilterAfter(new RateLimitFilter("orders", HttpMethod.POST, "/orders", rules, rateLimiter,
+					objectMapper, meterRegistry), BearerTokenAuthenticationFilter.class);
+		}
 		return http.build();
 	}
 
 	@Bean
-	public JwtAuthenticationConverter jwtAuthenticationConverter() {
-		JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-		grantedAuthoritiesConverter.setAuthoritiesClaimName("authorities");
-		grantedAuthoritiesConverter.setAuthorityPrefix("");
-
-		JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-		jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
-		return jwtAuthenticationConverter;
+	public RoleMaskJwtAuthenticationConverter roleMaskJwtAuthenticationConverter() {
+		return new RoleMaskJwtAuthenticationConverter();
+	}
+
+	@Bean
+	@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+	static Advisor requireRoleAuthorizationAdvisor() {
+		return new AuthorizationManagerBeforeMethodInterceptor(
+				AnnotationMatchingPointcut.forMethodAnnotation(RequireRole.class), new RoleMaskAuthorizationManager());
 	}
 
 	@Bean
@@ -71,7 +124,7 @@ public class ResourceServerConfig {
 		corsConfig.setAllowedOriginPatterns(Arrays.asList(origins));
 		corsConfig.setAllowedMethods(Arrays.asList("POST", "GET", "PUT", "DELETE", "PATCH"));
 		corsConfig.setAllowCredentials(true);
-		corsConfig.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+		corsConfig.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotency-Key"));
 
 		UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
 		source.registerCorsConfiguration("/**", corsConfig);
@@ -0,0 +1,86 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Roles checked by {@link RequireRole}, each mapped to one bit of a role mask.
+ * <p>
+ * The mask is only ever computed from role names on the resource server, so the order of the
+ * constants is not part of any token and new roles can be added anywhere.
+ */
+public enum AccessRole {
+
+	ADMIN("ROLE_ADMIN"),
+	CLIENT("ROLE_CLIENT");
+
+	private static final AccessRole[] ROLES = values();
+	private static final List<List<GrantedAuthority>> AUTHORITIES = new ArrayList<>();
+
+	static {
+		for (int mask = 0; mask < 1 << ROLES.length; mask++) {
+			List<GrantedAuthority> authorities = new ArrayList<>();
+			for (AccessRole role : ROLES) {
+				if (role.isIn(mask)) {
+					authorities.add(new SimpleGrantedAuthority(role.authority));
+				}
+			}
+			AUTHORITIES.add(Collections.unmodifiableList(authorities));
+		}
+	}
+
+	private final String authority;
+	private final int bit;
+
+	AccessRole(String authority) {
+		this.authority = authority;
+		this.bit = 1 << ordinal();
+	}
+
+	public String getAuthority() {
+		return authority;
+	}
+
+	public int bit() {
+		return bit;
+	}
+
+	public boolean isIn(int mask) {
+		return (mask & bit) != 0;
+	}
+
+	public static int maskOf(AccessRole... roles) {
+		int mask = 0;
+		for (AccessRole role : roles) {
+			mask |= role.bit;
+		}
+		return mask;
+	}
+
+	public static int maskOf(Collection<String> authorities) {
+		int mask = 0;
+		if (authorities == null) {
+			return mask;
+		}
+		for (String authority : authorities) {
+			for (AccessRole role : ROLES) {
+				if (role.authority.equals(authority)) {
+					mask |= role.bit;
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Shared, immutable authorities of the roles in the mask.
+	 */
+	public static List<GrantedAuthority> authoritiesOf(int mask) {
+		return AUTHORITIES.get(mask);
+	}
+}
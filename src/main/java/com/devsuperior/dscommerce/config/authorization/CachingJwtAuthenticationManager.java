@@ -0,0 +1,153 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bearer token authentication that keeps validated JWTs until they expire.
+ * <p>
+ * Tokens are keyed by their SHA-256, so the raw token is never held as a key, and a hit skips
+ * parsing and the RSA signature check. Only the verified {@link Jwt} is cached: every request gets
+ * a new {@link Authentication} converted from it and carrying that request's details, so nothing
+ * mutable is shared between requests. Only successful authentications are cached. The map is read without locking; when it grows past {@code maxEntries} one thread
+ * drops the expired entries and then arbitrary ones down to 90% of the limit, so the next misses
+ * do not trigger another full scan each.
+ * <p>
+ * A cached token stays valid until its {@code exp} even if its signing key is removed from the
+ * JWK set in the meantime.
+ */
+public class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+	private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private final JwtAuthenticationProvider provider;
+	private final Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter;
+	private final int maxEntries;
+	private final int lowWaterMark;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Timer verification;
+
+	public CachingJwtAuthenticationManager(JwtDecoder jwtDecoder,
+			Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter, int maxEntries,
+			MeterRegistry meterRegistry) {
+		this.provider = new JwtAuthenticationProvider(jwtDecoder);
+		this.provider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+		this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+		this.maxEntries = maxEntries;
+		this.lowWaterMark = maxEntries - maxEntries / 10;
+		Gauge.builder("jwt.cache.size", entries, Map::size)
+				.description("Validated tokens held in the cache")
+				.register(meterRegistry);
+		hits = Counter.builder("jwt.cache.hits").register(meterRegistry);
+		misses = Counter.builder("jwt.cache.misses").register(meterRegistry);
+		verification = Timer.builder("jwt.verification")
+				.description("Time to decode, verify and convert a token that was not cached")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		BearerTokenAuthenticationToken bearer = (BearerTokenAuthenticationToken) authentication;
+		String key = keyOf(bearer.getToken());
+		long now = System.currentTimeMillis();
+
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			if (now < entry.expiresAtMillis) {
+				hits.increment();
+				AbstractAuthenticationToken token = jwtAuthenticationConverter.convert(entry.jwt);
+				if (token.getDetails() == null) {
+					token.setDetails(bearer.getDetails());
+				}
+				return token;
+			}
+			entries.remove(key, entry);
+		}
+
+		misses.increment();
+		long start = System.nanoTime();
+		Authentication result = provider.authenticate(bearer);
+		verification.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+		if (result instanceof JwtAuthenticationToken token && token.getToken().getExpiresAt() != null) {
+			long expiresAtMillis = token.getToken().getExpiresAt().toEpochMilli();
+			if (now < expiresAtMillis) {
+				entries.put(key, new Entry(token.getToken(), expiresAtMillis));
+				evictIfFull(now);
+			}
+		}
+		return result;
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	private void evictIfFull(long now) {
+		if (entries.size() <= maxEntries || !evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+			Iterator<Entry> it = entries.values().iterator();
+			while (entries.size() > lowWaterMark && it.hasNext()) {
+				it.next();
+				it.remove();
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private static String keyOf(String token) {
+		MessageDigest digest = SHA_256.get();
+		digest.reset();
+		return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	private static class Entry {
+
+		private final Jwt jwt;
+		private final long expiresAtMillis;
+
+		private Entry(Jwt jwt, long expiresAtMillis) {
+			this.jwt = jwt;
+			this.expiresAtMillis = expiresAtMillis;
+		}
+	}
+}
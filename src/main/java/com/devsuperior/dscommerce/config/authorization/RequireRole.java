@@ -0,0 +1,19 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows the method only to callers holding at least one of the roles. Enforced by
+ * {@link RoleMaskAuthorizationManager} with a bitwise test, without SpEL.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequireRole {
+
+	AccessRole[] value();
+}
@@ -0,0 +1,33 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * JWT authentication carrying the caller's roles as a mask and the user id, both decoded once
+ * from the token claims.
+ */
+@SuppressWarnings("serial")
+public class RoleMaskAuthenticationToken extends JwtAuthenticationToken {
+
+	private final int roleMask;
+	private final Long userId;
+
+	public RoleMaskAuthenticationToken(Jwt jwt, int roleMask, Long userId) {
+		super(jwt, AccessRole.authoritiesOf(roleMask));
+		this.roleMask = roleMask;
+		this.userId = userId;
+	}
+
+	public int getRoleMask() {
+		return roleMask;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public boolean hasRole(AccessRole role) {
+		return role.isIn(roleMask);
+	}
+}
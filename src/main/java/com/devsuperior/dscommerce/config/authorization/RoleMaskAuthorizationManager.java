@@ -0,0 +1,53 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Authorizes methods annotated with {@link RequireRole}.
+ * <p>
+ * The roles of each method are resolved into a mask the first time it is called; after that a
+ * check is one map lookup and one bitwise AND against the mask of a
+ * {@link RoleMaskAuthenticationToken}. Other authentications have their mask computed from their
+ * authorities.
+ */
+public class RoleMaskAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+	private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+	private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+	private final Map<Method, Integer> requiredMasks = new ConcurrentHashMap<>();
+
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+		int required = requiredMasks.computeIfAbsent(invocation.getMethod(), RoleMaskAuthorizationManager::requiredMask);
+		return (roleMaskOf(authentication.get()) & required) != 0 ? GRANTED : DENIED;
+	}
+
+	private static int requiredMask(Method method) {
+		RequireRole annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequireRole.class);
+		if (annotation == null) {
+			throw new IllegalStateException("No @RequireRole on " + method);
+		}
+		return AccessRole.maskOf(annotation.value());
+	}
+
+	private static int roleMaskOf(Authentication authentication) {
+		if (authentication instanceof RoleMaskAuthenticationToken token) {
+			return token.getRoleMask();
+		}
+		if (authentication == null || !authentication.isAuthenticated()) {
+			return 0;
+		}
+		return AccessRole.maskOf(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+	}
+}
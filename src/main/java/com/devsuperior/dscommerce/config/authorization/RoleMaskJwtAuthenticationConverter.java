@@ -0,0 +1,23 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Turns the {@code authorities} and {@code user_id} claims issued by the authorization server into
+ * a {@link RoleMaskAuthenticationToken}.
+ */
+public class RoleMaskJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+	public static final String AUTHORITIES_CLAIM = "authorities";
+	public static final String USER_ID_CLAIM = "user_id";
+
+	@Override
+	public AbstractAuthenticationToken convert(Jwt jwt) {
+		int roleMask = AccessRole.maskOf(jwt.getClaimAsStringList(AUTHORITIES_CLAIM));
+		Object userId = jwt.getClaims().get(USER_ID_CLAIM);
+		return new RoleMaskAuthenticationToken(jwt, roleMask,
+				userId instanceof Number number ? Long.valueOf(number.longValue()) : null);
+	}
+}
@@ -0,0 +1,165 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs password hash comparisons on a small dedicated pool instead of the request threads.
+ * <p>
+ * The pool has a fixed number of threads and a bounded queue. When the queue is full, or a
+ * comparison waits longer than {@code maxWaitMillis}, the login fails at once with
+ * {@link #OVERLOADED}, which the token endpoint answers with 503. A login storm therefore costs at
+ * most {@code threads} cores and never holds more than a few request threads, so the other
+ * endpoints keep being served.
+ */
+public class BoundedPasswordVerifier implements AutoCloseable {
+
+	public static final String OVERLOADED = OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE;
+
+	private final PasswordEncoder passwordEncoder;
+	private final ThreadPoolExecutor executor;
+	private final long maxWaitMillis;
+
+	private final Timer queueWait;
+	private final Timer hash;
+	private final Counter queueFull;
+	private final Counter timedOut;
+
+	public BoundedPasswordVerifier(PasswordEncoder passwordEncoder, int threads, int queueCapacity,
+			long maxWaitMillis, MeterRegistry meterRegistry) {
+		this.passwordEncoder = passwordEncoder;
+		this.maxWaitMillis = maxWaitMillis;
+		AtomicInteger count = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "password-verifier-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+
+		Gauge.builder("auth.password.queue.size", executor, x -> x.getQueue().size())
+				.description("Password comparisons waiting for a thread")
+				.register(meterRegistry);
+		Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+				.description("Password comparisons running")
+				.register(meterRegistry);
+		queueWait = Timer.builder("auth.password.queue.wait")
+				.description("Time a password comparison waited for a thread")
+				.register(meterRegistry);
+		hash = Timer.builder("auth.password.hash")
+				.description("Time spent hashing and comparing a password")
+				.register(meterRegistry);
+		queueFull = Counter.builder("auth.password.rejected").tag("reason", "queue_full").register(meterRegistry);
+		timedOut = Counter.builder("auth.password.rejected").tag("reason", "timeout").register(meterRegistry);
+	}
+
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return verify(rawPassword, encodedPassword, false).isMatch();
+	}
+
+	/**
+	 * Like {@link #matches}, but when the password matches a hash that the encoder wants to
+	 * upgrade the same task also hashes it again with the current profile.
+	 */
+	public Verification verifyAndUpgrade(CharSequence rawPassword, String encodedPassword) {
+		return verify(rawPassword, encodedPassword, true);
+	}
+
+	private Verification verify(CharSequence rawPassword, String encodedPassword, boolean upgrade) {
+		long submitted = System.nanoTime();
+		Future<Verification> result;
+		try {
+			result = executor.submit(() -> {
+				long started = System.nanoTime();
+				queueWait.record(started - submitted, TimeUnit.NANOSECONDS);
+				try {
+					if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+						return Verification.NO_MATCH;
+					}
+					if (upgrade && passwordEncoder.upgradeEncoding(encodedPassword)) {
+						return new Verification(true, passwordEncoder.encode(rawPassword));
+					}
+					return Verification.MATCH;
+				}
+				finally {
+					hash.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			queueFull.increment();
+			throw overloaded();
+		}
+
+		try {
+			return result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			result.cancel(false);
+			timedOut.increment();
+			throw overloaded();
+		}
+		catch (InterruptedException e) {
+			result.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new OAuth2AuthenticationException(OAuth2ErrorCodes.SERVER_ERROR);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private static OAuth2AuthenticationException overloaded() {
+		return new OAuth2AuthenticationException(new OAuth2Error(OVERLOADED,
+				"Too many login attempts in progress, try again later", null));
+	}
+
+	public static class Verification {
+
+		private static final Verification MATCH = new Verification(true, null);
+		private static final Verification NO_MATCH = new Verification(false, null);
+
+		private final boolean match;
+		private final String upgradedPassword;
+
+		private Verification(boolean match, String upgradedPassword) {
+			this.match = match;
+			this.upgradedPassword = upgradedPassword;
+		}
+
+		public boolean isMatch() {
+			return match;
+		}
+
+		/**
+		 * The password hashed with the current profile, or null when no upgrade is needed.
+		 */
+		public String getUpgradedPassword() {
+			return upgradedPassword;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * Jackson mixin that lets {@link CustomUserAuthorities} be stored in the {@code attributes} of an
+ * authorization. Registering it also adds the class to the allowlist of Spring Security's
+ * Jackson modules.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY)
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE,
+		isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public abstract class CustomUserAuthoritiesMixin {
+
+	@JsonCreator
+	CustomUserAuthoritiesMixin(@JsonProperty("userId") Long userId, @JsonProperty("username") String username,
+			@JsonProperty("authorities") Collection<? extends GrantedAuthority> authorities) {
+	}
+}
@@ -0,0 +1,66 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+/**
+ * Password hashing profiles behind a {@link DelegatingPasswordEncoder}.
+ * <p>
+ * New hashes use the algorithm {@code idForEncode} and are stored with its {@code {id}} prefix;
+ * every profile below keeps matching, and hashes without a prefix (the original rows) are read as
+ * BCrypt. {@link PasswordEncoder#upgradeEncoding(String)} is true for unprefixed hashes, for other
+ * algorithms and for BCrypt hashes whose cost differs from {@code bcryptStrength} in either
+ * direction, so lowering the cost to save CPU migrates hashes just like raising it.
+ */
+public final class PasswordEncoderProfiles {
+
+	public static final String BCRYPT = "bcrypt";
+	public static final String PBKDF2 = "pbkdf2@SpringSecurity_v5_8";
+
+	private PasswordEncoderProfiles() {
+	}
+
+	public static PasswordEncoder delegating(String idForEncode, int bcryptStrength) {
+		Map<String, PasswordEncoder> encoders = new HashMap<>();
+		encoders.put(BCRYPT, new CostBCryptPasswordEncoder(bcryptStrength));
+		encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+		if (!encoders.containsKey(idForEncode)) {
+			throw new IllegalArgumentException("Unknown password encoder '" + idForEncode + "', expected one of "
+					+ encoders.keySet());
+		}
+		DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+		encoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+		return encoder;
+	}
+
+	/**
+	 * BCrypt that asks for an upgrade whenever the stored cost is not the configured one.
+	 */
+	static class CostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+		private static final Pattern COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+		private final int strength;
+
+		CostBCryptPasswordEncoder(int strength) {
+			super(strength);
+			this.strength = strength;
+		}
+
+		@Override
+		public boolean upgradeEncoding(String encodedPassword) {
+			if (encodedPassword == null) {
+				return false;
+			}
+			Matcher matcher = COST.matcher(encodedPassword);
+			return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+		}
+	}
+}
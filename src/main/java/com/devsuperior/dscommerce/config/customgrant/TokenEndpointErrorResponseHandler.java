@@ -0,0 +1,45 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.http.converter.OAuth2ErrorHttpMessageConverter;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Token endpoint errors: 503 with {@code Retry-After} when password verification is overloaded,
+ * otherwise the standard 400 OAuth2 error response.
+ */
+public class TokenEndpointErrorResponseHandler implements AuthenticationFailureHandler {
+
+	private static final String RETRY_AFTER_SECONDS = "1";
+
+	private final OAuth2ErrorHttpMessageConverter errorHttpResponseConverter = new OAuth2ErrorHttpMessageConverter();
+
+	@Override
+	public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+			AuthenticationException exception) throws IOException {
+
+		OAuth2Error error = exception instanceof OAuth2AuthenticationException oauth2Exception
+				? oauth2Exception.getError()
+				: new OAuth2Error(OAuth2ErrorCodes.INVALID_REQUEST, exception.getMessage(), null);
+		ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
+		if (BoundedPasswordVerifier.OVERLOADED.equals(error.getErrorCode())) {
+			httpResponse.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+			httpResponse.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+		}
+		else {
+			httpResponse.setStatusCode(HttpStatus.BAD_REQUEST);
+		}
+		errorHttpResponseConverter.write(error, null, httpResponse);
+	}
+}
@@ -0,0 +1,62 @@
+package com.devsuperior.dscommerce.config.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Read replica routing, active only when {@code datasource.replica.url} is set. Both pools are
+ * Hikari: the primary one takes its connection from {@code spring.datasource.*} and its pool
+ * settings from {@code spring.datasource.hikari.*}, as without a replica, and the replica one
+ * takes its pool settings from {@code datasource.replica.hikari.*}. The application's
+ * {@link DataSource} becomes a {@link ReplicaRoutingDataSource} over both pools behind a
+ * {@link LazyConnectionDataSourceProxy}. The two pools are beans so that their settings are bound
+ * and they are closed on shutdown.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replica.url:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+	@Value("${datasource.replica.url}")
+	private String replicaUrl;
+
+	@Value("${datasource.replica.username}")
+	private String replicaUsername;
+
+	@Value("${datasource.replica.password}")
+	private String replicaPassword;
+
+	@Value("${datasource.replica.read-your-writes-ms}")
+	private Long readYourWritesMillis;
+
+	@Bean(autowireCandidate = false)
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean(autowireCandidate = false)
+	@ConfigurationProperties("datasource.replica.hikari")
+	public HikariDataSource replicaDataSource() {
+		return DataSourceBuilder.create().type(HikariDataSource.class).url(replicaUrl).username(replicaUsername)
+				.password(replicaPassword).build();
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(DataSourceProperties properties) {
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource(properties),
+				replicaDataSource(), readYourWritesMillis);
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
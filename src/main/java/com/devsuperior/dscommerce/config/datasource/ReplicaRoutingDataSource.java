@@ -0,0 +1,104 @@
+package com.devsuperior.dscommerce.config.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * <p>
+ * The lookup reads the transaction's read-only flag, which is only set once the transaction has
+ * begun, so this data source must sit behind a {@link LazyConnectionDataSourceProxy} that fetches
+ * the connection on the first statement. Connections outside a transaction go to the primary.
+ * <p>
+ * Read-your-writes: when a read-write transaction of an authenticated user commits, the reads of
+ * that user stay on the primary for {@code readYourWritesMillis}, which should cover the
+ * replication lag. Other users keep reading from the replica.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Target {
+		PRIMARY, REPLICA
+	}
+
+	private static final int MAX_TRACKED_WRITERS = 10_000;
+
+	private final long readYourWritesNanos;
+	private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+	private LongSupplier nanoClock = System::nanoTime;
+
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long readYourWritesMillis) {
+		this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+		setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return Target.PRIMARY;
+		}
+		String user = currentUser();
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			recordWriteOnCommit(user);
+			return Target.PRIMARY;
+		}
+		return user != null && wroteRecently(user) ? Target.PRIMARY : Target.REPLICA;
+	}
+
+	void setNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+	}
+
+	private boolean wroteRecently(String user) {
+		Long lastWrite = lastWrites.get(user);
+		if (lastWrite == null) {
+			return false;
+		}
+		if (nanoClock.getAsLong() - lastWrite < readYourWritesNanos) {
+			return true;
+		}
+		lastWrites.remove(user, lastWrite);
+		return false;
+	}
+
+	private void recordWriteOnCommit(String user) {
+		if (user == null || readYourWritesNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				long now = nanoClock.getAsLong();
+				lastWrites.put(user, now);
+				if (lastWrites.size() > MAX_TRACKED_WRITERS) {
+					lastWrites.values().removeIf(lastWrite -> now - lastWrite >= readYourWritesNanos);
+				}
+			}
+		});
+	}
+
+	private static String currentUser() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || !authentication.isAuthenticated()) {
+			return null;
+		}
+		if (authentication instanceof JwtAuthenticationToken token) {
+			String username = token.getToken().getClaimAsString("username");
+			return username != null ? username : token.getName();
+		}
+		return authentication.getName();
+	}
+}
@@ -0,0 +1,274 @@
+package com.devsuperior.dscommerce.config.keys;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * Signing keys of the authorization server, read from a JWK set file shared by all nodes.
+ * <p>
+ * The first key of the file signs new tokens and the others are previous keys kept only to
+ * verify tokens issued before a rotation; all of them are published at the JWKS endpoint. The
+ * file is written by {@link KeyRotationCommand} and reloaded when it changes, either on the
+ * reload schedule or as soon as a token signed with an unknown {@code kid} shows up, so a key
+ * rotated on one node is accepted by the others without a restart.
+ * <p>
+ * A missing file is created with one new key on first boot, so later boots reuse it. Nodes that
+ * should accept each other's tokens must share the file, ideally created beforehand with
+ * {@link KeyRotationCommand}; when several nodes create it at once only one key is kept.
+ * <p>
+ * The keys are kept as a JWK set rather than in a PKCS12 keystore: a keystore needs a certificate
+ * for each private key, which the JDK cannot issue without internal APIs, while the JWK set
+ * carries the {@code kid}s and their order and is what the JWKS endpoint publishes anyway. The
+ * file holds private keys and is written readable by the owner only.
+ */
+public class JwkSetKeyStore implements JWKSource<SecurityContext> {
+
+	private static final Logger logger = LoggerFactory.getLogger(JwkSetKeyStore.class);
+
+	private static final long MIN_RELOAD_INTERVAL_MILLIS = 1000;
+
+	private final Path file;
+	private volatile Keys keys;
+	private volatile long lastReloadMillis;
+
+	private JwkSetKeyStore(Path file, Keys keys) {
+		this.file = file;
+		this.keys = keys;
+	}
+
+	public static JwkSetKeyStore load(Path file) {
+		try {
+			Keys keys = read(file);
+			logger.info("Loaded {} signing keys from {}, signing with kid {}", keys.set.getKeys().size(), file,
+					keys.signingKeyId);
+			return new JwkSetKeyStore(file, keys);
+		}
+		catch (IOException | ParseException e) {
+			throw new IllegalStateException("Cannot read signing keys from " + file, e);
+		}
+	}
+
+	/**
+	 * Loads the file, creating it with a new signing key when it does not exist.
+	 */
+	public static JwkSetKeyStore loadOrCreate(Path file) {
+		if (Files.notExists(file)) {
+			try {
+				RSAKey key = generate();
+				if (create(file, new JWKSet(key))) {
+					logger.warn("Created signing key file {} with kid {}; nodes that should accept each other's "
+							+ "tokens must share it", file, key.getKeyID());
+				}
+			}
+			catch (IOException e) {
+				throw new IllegalStateException("Cannot create signing keys in " + file, e);
+			}
+		}
+		return load(file);
+	}
+
+	@Override
+	public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+		List<JWK> result = jwkSelector.select(keys.set);
+		if (result.isEmpty() && isUnknownKeyId(jwkSelector.getMatcher().getKeyIDs())) {
+			reloadNow();
+			result = jwkSelector.select(keys.set);
+		}
+		return result;
+	}
+
+	public String getSigningKeyId() {
+		return keys.signingKeyId;
+	}
+
+	@Scheduled(fixedDelayString = "${security.jwt.keys.reload-interval-ms}")
+	public void reload() {
+		try {
+			if (Files.getLastModifiedTime(file).equals(keys.lastModified)) {
+				return;
+			}
+			Keys loaded = read(file);
+			if (!loaded.signingKeyId.equals(keys.signingKeyId)) {
+				logger.info("Signing key rotated from kid {} to kid {}", keys.signingKeyId, loaded.signingKeyId);
+			}
+			keys = loaded;
+		}
+		catch (IOException | ParseException | RuntimeException e) {
+			logger.error("Failed to reload signing keys from {}, keeping the current ones", file, e);
+		}
+	}
+
+	private boolean isUnknownKeyId(Set<String> keyIds) {
+		if (keyIds == null || keyIds.isEmpty()) {
+			return false;
+		}
+		for (String keyId : keyIds) {
+			if (keys.set.getKeyByKeyId(keyId) == null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private synchronized void reloadNow() {
+		long now = System.currentTimeMillis();
+		if (now - lastReloadMillis < MIN_RELOAD_INTERVAL_MILLIS) {
+			return;
+		}
+		lastReloadMillis = now;
+		reload();
+	}
+
+	static Keys read(Path file) throws IOException, ParseException {
+		FileTime lastModified = Files.getLastModifiedTime(file);
+		JWKSet set = JWKSet.parse(Files.readString(file, StandardCharsets.UTF_8));
+		List<JWK> list = set.getKeys();
+		if (list.isEmpty() || !(list.get(0) instanceof RSAKey signing) || !signing.isPrivate()) {
+			throw new IllegalStateException("The first key of " + file + " must be an RSA private key");
+		}
+		for (JWK key : list) {
+			if (key.getKeyID() == null) {
+				throw new IllegalStateException("Every key of " + file + " must have a kid");
+			}
+		}
+		return new Keys(set, signing.getKeyID(), lastModified);
+	}
+
+	/**
+	 * Puts a new signing key in front of the current keys and keeps at most {@code retain} of the
+	 * previous ones.
+	 */
+	static JWKSet rotate(JWKSet current, RSAKey signingKey, int retain) {
+		List<JWK> keys = new ArrayList<>();
+		keys.add(signingKey);
+		for (JWK key : current.getKeys()) {
+			if (keys.size() > retain) {
+				break;
+			}
+			keys.add(key);
+		}
+		return new JWKSet(keys);
+	}
+
+	/**
+	 * Writes the set, private keys included, readable by the owner only, and moves it over the
+	 * file in one step so nodes never read a partial file.
+	 */
+	static void write(Path file, JWKSet set) throws IOException {
+		Path temp = writeTemp(file, set);
+		try {
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Like {@link #write}, but only if the file does not exist yet; returns false when another
+	 * process created it first.
+	 */
+	static boolean create(Path file, JWKSet set) throws IOException {
+		Path temp = writeTemp(file, set);
+		try {
+			try {
+				// a hard link is created atomically and fails if the file exists, unlike a rename
+				Files.createLink(file, temp);
+			}
+			catch (UnsupportedOperationException e) {
+				Files.move(temp, file);
+			}
+			return true;
+		}
+		catch (FileAlreadyExistsException e) {
+			return false;
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static Path writeTemp(Path file, JWKSet set) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+		try {
+			if (Files.getFileStore(temp).supportsFileAttributeView("posix")) {
+				Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+			}
+			Files.writeString(temp, set.toString(false), StandardCharsets.UTF_8);
+			return temp;
+		}
+		catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	static RSAKey generate() {
+		try {
+			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+			keyPairGenerator.initialize(2048);
+			KeyPair keyPair = keyPairGenerator.generateKeyPair();
+			return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+					.privateKey((RSAPrivateKey) keyPair.getPrivate())
+					.keyUse(KeyUse.SIGNATURE)
+					.keyID(Instant.now().getEpochSecond() + "-" + UUID.randomUUID().toString().substring(0, 8))
+					.build();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	static class Keys {
+
+		private final JWKSet set;
+		private final String signingKeyId;
+		private final FileTime lastModified;
+
+		private Keys(JWKSet set, String signingKeyId, FileTime lastModified) {
+			this.set = set;
+			this.signingKeyId = signingKeyId;
+			this.lastModified = lastModified;
+		}
+
+		JWKSet getSet() {
+			return set;
+		}
+	}
+}
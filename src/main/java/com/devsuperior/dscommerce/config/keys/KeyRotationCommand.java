@@ -0,0 +1,46 @@
+package com.devsuperior.dscommerce.config.keys;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+
+/**
+ * Creates the signing key file, or rotates it: a new key becomes the signing key and at most
+ * {@code retain} previous keys (default 2) stay published so tokens they signed remain valid
+ * until they expire. Nodes pick up the new file without a restart.
+ * <p>
+ * From the packaged application:
+ *
+ * <pre>
+ * java -cp dscommerce.jar -Dloader.main=com.devsuperior.dscommerce.config.keys.KeyRotationCommand \
+ *     org.springframework.boot.loader.PropertiesLauncher /etc/dscommerce/jwks.json [retain]
+ * </pre>
+ *
+ * Keep {@code retain} high enough that no key is dropped while tokens signed with it are still
+ * valid ({@code security.jwt.duration}).
+ */
+public class KeyRotationCommand {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: KeyRotationCommand <jwks file> [retain]");
+			System.exit(2);
+		}
+		Path file = Paths.get(args[0]);
+		int retain = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+		JWKSet current = Files.exists(file) ? JwkSetKeyStore.read(file).getSet() : new JWKSet();
+		RSAKey signingKey = JwkSetKeyStore.generate();
+		JWKSet rotated = JwkSetKeyStore.rotate(current, signingKey, retain);
+		JwkSetKeyStore.write(file, rotated);
+
+		System.out.println("Signing with kid " + signingKey.getKeyID());
+		for (JWK key : rotated.getKeys().subList(1, rotated.getKeys().size())) {
+			System.out.println("Verifying with kid " + key.getKeyID());
+		}
+	}
+}
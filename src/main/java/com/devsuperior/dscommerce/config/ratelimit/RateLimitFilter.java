@@ -0,0 +1,119 @@
+package com.devsuperior.dscommerce.config.ratelimit;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devsuperior.dscommerce.dto.CustomErrorDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rate limits one route with a bucket per key (client, user and/or IP).
+ * <p>
+ * Every configured key must have a token for the request to go through; keys the request does
+ * not carry are skipped. Allowed responses get the {@code RateLimit-Limit},
+ * {@code RateLimit-Remaining} and {@code RateLimit-Reset} headers of the most restrictive bucket,
+ * refused ones a 429 with {@code Retry-After}. Tokens already taken from the other buckets of a
+ * refused request are not given back.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	public static final String LIMIT_HEADER = "RateLimit-Limit";
+	public static final String REMAINING_HEADER = "RateLimit-Remaining";
+	public static final String RESET_HEADER = "RateLimit-Reset";
+
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private final String route;
+	private final RequestMatcher matcher;
+	private final Map<RateLimitKey, RateLimitRule> rules;
+	private final Map<RateLimitKey, Counter> rejected = new EnumMap<>(RateLimitKey.class);
+	private final RateLimiter rateLimiter;
+	private final ObjectMapper objectMapper;
+
+	public RateLimitFilter(String route, HttpMethod method, String path, Map<RateLimitKey, RateLimitRule> rules,
+			RateLimiter rateLimiter, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+		this.route = route;
+		this.matcher = new AntPathRequestMatcher(path, method.name());
+		this.rules = new EnumMap<>(RateLimitKey.class);
+		rules.forEach((key, rule) -> {
+			if (rule != null) {
+				this.rules.put(key, rule);
+				rejected.put(key, Counter.builder("rate-limit.rejected")
+						.tag("route", route)
+						.tag("key", key.name().toLowerCase())
+						.register(meterRegistry));
+			}
+		});
+		this.rateLimiter = rateLimiter;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		if (!rules.isEmpty() && matcher.matches(request)) {
+			RateLimiter.Decision tightest = null;
+			for (Map.Entry<RateLimitKey, RateLimitRule> entry : rules.entrySet()) {
+				String value = entry.getKey().resolve(request);
+				if (value == null) {
+					continue;
+				}
+				RateLimiter.Decision decision = rateLimiter.tryAcquire(route + ':' + entry.getKey() + ':' + value,
+						entry.getValue());
+				if (!decision.isAllowed()) {
+					rejected.get(entry.getKey()).increment();
+					reject(request, response, decision);
+					return;
+				}
+				if (tightest == null || decision.getRemaining() < tightest.getRemaining()) {
+					tightest = decision;
+				}
+			}
+			if (tightest != null) {
+				setHeaders(response, tightest);
+			}
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	private void reject(HttpServletRequest request, HttpServletResponse response, RateLimiter.Decision decision)
+			throws IOException {
+		HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+		setHeaders(response, decision);
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds(decision.getRetryAfterNanos())));
+		response.setStatus(status.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		CustomErrorDTO err = new CustomErrorDTO(Instant.now(), status.value(),
+				"Muitas requisições, tente novamente em instantes", request.getRequestURI());
+		objectMapper.writeValue(response.getOutputStream(), err);
+	}
+
+	private static void setHeaders(HttpServletResponse response, RateLimiter.Decision decision) {
+		response.setHeader(LIMIT_HEADER, String.valueOf(decision.getLimit()));
+		response.setHeader(REMAINING_HEADER, String.valueOf(decision.getRemaining()));
+		response.setHeader(RESET_HEADER, String.valueOf(seconds(decision.getResetNanos())));
+	}
+
+	private static long seconds(long nanos) {
+		return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+	}
+}
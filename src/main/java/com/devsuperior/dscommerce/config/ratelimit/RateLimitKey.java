@@ -0,0 +1,80 @@
+package com.devsuperior.dscommerce.config.ratelimit;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * What a bucket is keyed by. Behind bearer authentication the client and user come from the
+ * token; at the token endpoint, which runs before client and password authentication, they are
+ * the ones claimed by the request. The user bucket there is keyed by the username alone, so
+ * guessing one account is throttled whichever addresses the guesses come from; the IP bucket
+ * limits each address separately.
+ * <p>
+ * The remote address is the client's only when {@code server.forward-headers-strategy} lets the
+ * container take it from the {@code X-Forwarded-For} of a trusted proxy; otherwise every caller
+ * behind a load balancer shares the proxy's address.
+ */
+public enum RateLimitKey {
+
+	CLIENT {
+		@Override
+		public String resolve(HttpServletRequest request) {
+			if (SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken token) {
+				List<String> audience = token.getToken().getAudience();
+				return audience == null || audience.isEmpty() ? null : audience.get(0);
+			}
+			String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+			if (header != null && header.regionMatches(true, 0, "Basic ", 0, 6)) {
+				try {
+					String credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()),
+							StandardCharsets.UTF_8);
+					int separator = credentials.indexOf(':');
+					if (separator > 0) {
+						return URLDecoder.decode(credentials.substring(0, separator), StandardCharsets.UTF_8);
+					}
+				}
+				catch (IllegalArgumentException e) {
+					return null;
+				}
+			}
+			return blankToNull(request.getParameter("client_id"));
+		}
+	},
+
+	USER {
+		@Override
+		public String resolve(HttpServletRequest request) {
+			Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+			if (authentication instanceof JwtAuthenticationToken token) {
+				return token.getToken().getClaimAsString("username");
+			}
+			String username = blankToNull(request.getParameter("username"));
+			return username == null ? null : username.toLowerCase();
+		}
+	},
+
+	IP {
+		@Override
+		public String resolve(HttpServletRequest request) {
+			return request.getRemoteAddr();
+		}
+	};
+
+	/**
+	 * The key value for this request, or null when the request does not carry one.
+	 */
+	public abstract String resolve(HttpServletRequest request);
+
+	private static String blankToNull(String value) {
+		return value == null || value.isBlank() ? null : value;
+	}
+}
@@ -0,0 +1,49 @@
+package com.devsuperior.dscommerce.config.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * {@code capacity} requests per {@code period}, refilled evenly, written as
+ * {@code <requests>/<seconds>} in the properties (e.g. {@code 10/60}).
+ */
+public class RateLimitRule {
+
+	private final long capacity;
+	private final Duration period;
+
+	public RateLimitRule(long capacity, Duration period) {
+		this.capacity = capacity;
+		this.period = period;
+	}
+
+	/**
+	 * Parses {@code <requests>/<seconds>}; a blank value means no limit and returns null.
+	 */
+	public static RateLimitRule parse(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		String[] parts = value.trim().split("/");
+		try {
+			if (parts.length == 2) {
+				long capacity = Long.parseLong(parts[0].trim());
+				long seconds = Long.parseLong(parts[1].trim());
+				if (capacity > 0 && seconds > 0) {
+					return new RateLimitRule(capacity, Duration.ofSeconds(seconds));
+				}
+			}
+		}
+		catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException("Invalid rate limit '" + value + "', expected <requests>/<seconds>");
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	public Duration getPeriod() {
+		return period;
+	}
+}
@@ -0,0 +1,130 @@
+package com.devsuperior.dscommerce.config.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscommerce.util.TokenBucket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-process token buckets by key.
+ * <p>
+ * Buckets live in a {@link ConcurrentHashMap} and are only created on the first request of a
+ * key; after that a request is a map read and one compare-and-set on the bucket. A full bucket
+ * carries no state, so idle ones are dropped on a schedule and when the map grows past
+ * {@code maxBuckets} arbitrary ones go too, which at worst hands those keys a fresh burst.
+ * <p>
+ * The limits are per instance: behind a load balancer each node enforces its own buckets.
+ */
+@Component
+public class RateLimiter {
+
+	private final int maxBuckets;
+	private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	public RateLimiter(@Value("${rate-limit.max-buckets}") int maxBuckets, MeterRegistry meterRegistry) {
+		this.maxBuckets = maxBuckets;
+		Gauge.builder("rate-limit.buckets", buckets, Map::size)
+				.description("Token buckets currently held")
+				.register(meterRegistry);
+	}
+
+	public Decision tryAcquire(String key, RateLimitRule rule) {
+		return tryAcquire(key, rule, System.nanoTime());
+	}
+
+	Decision tryAcquire(String key, RateLimitRule rule, long nowNanos) {
+		TokenBucket bucket = buckets.get(key);
+		if (bucket == null) {
+			bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(rule.getCapacity(), rule.getPeriod(), nowNanos));
+			evictIfFull(nowNanos);
+		}
+		long result = bucket.tryAcquire(nowNanos);
+		return new Decision(result >= 0, bucket.getCapacity(), Math.max(0, result), bucket.nanosUntilFull(nowNanos),
+				result < 0 ? -result : 0);
+	}
+
+	@Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms}")
+	public void evictIdle() {
+		evictIdle(System.nanoTime());
+	}
+
+	int evictIdle(long nowNanos) {
+		int before = buckets.size();
+		buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+		return before - buckets.size();
+	}
+
+	int size() {
+		return buckets.size();
+	}
+
+	private void evictIfFull(long nowNanos) {
+		if (buckets.size() <= maxBuckets || !evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			evictIdle(nowNanos);
+			Iterator<TokenBucket> it = buckets.values().iterator();
+			while (buckets.size() > maxBuckets && it.hasNext()) {
+				it.next();
+				it.remove();
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public static class Decision {
+
+		private final boolean allowed;
+		private final long limit;
+		private final long remaining;
+		private final long resetNanos;
+		private final long retryAfterNanos;
+
+		public Decision(boolean allowed, long limit, long remaining, long resetNanos, long retryAfterNanos) {
+			this.allowed = allowed;
+			this.limit = limit;
+			this.remaining = remaining;
+			this.resetNanos = resetNanos;
+			this.retryAfterNanos = retryAfterNanos;
+		}
+
+		public boolean isAllowed() {
+			return allowed;
+		}
+
+		public long getLimit() {
+			return limit;
+		}
+
+		public long getRemaining() {
+			return remaining;
+		}
+
+		/**
+		 * Nanoseconds until the bucket is full again.
+		 */
+		public long getResetNanos() {
+			return resetNanos;
+		}
+
+		/**
+		 * Nanoseconds until the next token, zero when the request was allowed.
+		 */
+		public long getRetryAfterNanos() {
+			return retryAfterNanos;
+		}
+	}
+}
@@ -3,18 +3,30 @@ package com.devsuperior.dscommerce.controllers;
 import java.net.URI;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.RequireRole;
 import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderIngestionDTO;
+import com.devsuperior.dscommerce.dto.OrderSummaryDTO;
+import com.devsuperior.dscommerce.services.IdempotencyService;
+import com.devsuperior.dscommerce.services.OrderEventService;
+import com.devsuperior.dscommerce.services.OrderIngestionService;
 import com.devsuperior.dscommerce.services.OrderService;
+import com.devsuperior.dscommerce.services.OrderSummaryService;
 
 import jakarta.validation.Valid;
 
@@ -25,17 +37,77 @@ public class OrderController {
     @Autowired
     private OrderService service;
 
-    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderIngestionService ingestionService;
+
+    @Autowired
+    private OrderEventService eventService;
+
+    @Autowired
+    private OrderSummaryService summaryService;
+
+    @RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
+    @GetMapping
+    public ResponseEntity<Page<OrderSummaryDTO>> findAll(Pageable pageable) {
+        Page<OrderSummaryDTO> dto = summaryService.findAll(pageable);
+        return ResponseEntity.ok(dto);
+    }
+    
+    @RequireRole(AccessRole.ADMIN)
+    @PostMapping(value = "/summaries/rebuild")
+    public ResponseEntity<Void> rebuildSummaries() {
+        summaryService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
     @GetMapping(value = "/{id}")
     public ResponseEntity<OrderDTO> findById(@PathVariable Long id) {
         OrderDTO dto = service.findById(id);
         return ResponseEntity.ok(dto);
     }
     
-    @PreAuthorize("hasRole('ROLE_CLIENT')")
+    @RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long id) {
+        return eventService.subscribe(id);
+    }
+    
+    @RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
+    @GetMapping(value = "/ingestion/{id}")
+    public ResponseEntity<OrderIngestionDTO> findIngestionById(@PathVariable String id) {
+        OrderIngestionDTO dto = ingestionService.findById(id);
+        return ResponseEntity.ok(dto);
+    }
+    
+    @RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
+    @PostMapping(value = "/{id}/payment")
+    public ResponseEntity<OrderDTO> pay(@PathVariable Long id) {
+        OrderDTO dto = service.pay(id);
+        return ResponseEntity.ok(dto);
+    }
+    
+    @RequireRole(AccessRole.CLIENT)
     @PostMapping
-    public ResponseEntity<OrderDTO> insert(@Valid @RequestBody OrderDTO dto) {
-        dto = service.insert(dto);
+    public ResponseEntity<?> insert(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody OrderDTO dto) {
+        if (ingestionService.isEnabled()) {
+            OrderIngestionDTO ticket = ingestionService.submit(dto, idempotencyKey);
+            URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/ingestion/{id}")
+                    .buildAndExpand(ticket.getId()).toUri();
+            return ResponseEntity.accepted().location(uri).body(ticket);
+        }
+        if (idempotencyKey == null) {
+            dto = service.insert(dto);
+        }
+        else {
+            OrderDTO request = dto;
+            dto = idempotencyService.execute(idempotencyKey, request, () -> service.insert(request));
+        }
         URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
                 .buildAndExpand(dto.getId()).toUri();
         return ResponseEntity.created(uri).body(dto);
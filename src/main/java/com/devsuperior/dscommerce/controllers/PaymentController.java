@@ -0,0 +1,35 @@
+package com.devsuperior.dscommerce.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.RequireRole;
+import com.devsuperior.dscommerce.dto.ReconciliationReportDTO;
+import com.devsuperior.dscommerce.services.PaymentReconciliationService;
+
+@RestController
+@RequestMapping(value = "/payments")
+public class PaymentController {
+
+    @Autowired
+    private PaymentReconciliationService reconciliationService;
+
+    @RequireRole(AccessRole.ADMIN)
+    @PostMapping(value = "/reconciliation", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ReconciliationReportDTO> reconcile(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            ReconciliationReportDTO dto = reconciliationService.reconcile(in);
+            return ResponseEntity.ok(dto);
+        }
+    }
+}
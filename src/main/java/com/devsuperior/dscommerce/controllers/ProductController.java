@@ -1,12 +1,13 @@
 package com.devsuperior.dscommerce.controllers;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,9 +19,18 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.RequireRole;
+import com.devsuperior.dscommerce.dto.PriceHistoryDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.RelatedProductDTO;
+import com.devsuperior.dscommerce.dto.TopSellerDTO;
+import com.devsuperior.dscommerce.services.CoOccurrenceService;
+import com.devsuperior.dscommerce.services.PriceHistoryService;
 import com.devsuperior.dscommerce.services.ProductService;
+import com.devsuperior.dscommerce.services.SimilarProductService;
+import com.devsuperior.dscommerce.services.TopSellerService;
 
 import jakarta.validation.Valid;
 
@@ -31,6 +41,18 @@ public class ProductController {
     @Autowired
     private ProductService service;
 
+    @Autowired
+    private TopSellerService topSellerService;
+
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+
+    @Autowired
+    private SimilarProductService similarProductService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
     @GetMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
         ProductDTO dto = service.findById(id);
@@ -45,7 +67,43 @@ public class ProductController {
         return ResponseEntity.ok(dto);
     }
 
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "/top-sellers")
+    public ResponseEntity<List<TopSellerDTO>> findTopSellers() {
+        List<TopSellerDTO> list = topSellerService.findTopSellers();
+        return ResponseEntity.ok(list);
+    }
+
+    @GetMapping(value = "/{id}/also-bought")
+    public ResponseEntity<List<RelatedProductDTO>> findAlsoBought(
+            @PathVariable Long id,
+            @RequestParam(name = "size", defaultValue = "5") Integer size) {
+        List<RelatedProductDTO> list = coOccurrenceService.findNeighbours(id, size);
+        return ResponseEntity.ok(list);
+    }
+
+    @GetMapping(value = "/{id}/similar")
+    public ResponseEntity<List<ProductMinDTO>> findSimilar(
+            @PathVariable Long id,
+            @RequestParam(name = "size", defaultValue = "5") Integer size) {
+        List<ProductMinDTO> list = similarProductService.findSimilar(id, size);
+        return ResponseEntity.ok(list);
+    }
+
+    @GetMapping(value = "/{id}/price")
+    public ResponseEntity<PriceHistoryDTO> findPriceAt(
+            @PathVariable Long id,
+            @RequestParam(name = "at", required = false) Instant at) {
+        PriceHistoryDTO dto = priceHistoryService.findPriceAt(id, at == null ? Instant.now() : at);
+        return ResponseEntity.ok(dto);
+    }
+
+    @GetMapping(value = "/{id}/price-history")
+    public ResponseEntity<List<PriceHistoryDTO>> findPriceHistory(@PathVariable Long id) {
+        List<PriceHistoryDTO> list = priceHistoryService.findHistory(id);
+        return ResponseEntity.ok(list);
+    }
+
+    @RequireRole(AccessRole.ADMIN)
     @PostMapping
     public ResponseEntity<ProductDTO> insert(@Valid @RequestBody ProductDTO dto) {
         dto = service.insert(dto);
@@ -54,14 +112,14 @@ public class ProductController {
         return ResponseEntity.created(uri).body(dto);
     }
 
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @RequireRole(AccessRole.ADMIN)
     @PutMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO dto) {
         dto = service.update(id, dto);
         return ResponseEntity.ok(dto);
     }
 
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @RequireRole(AccessRole.ADMIN)
     @DeleteMapping(value = "/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         service.delete(id);
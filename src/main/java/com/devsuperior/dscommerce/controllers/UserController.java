@@ -1,14 +1,26 @@
 package com.devsuperior.dscommerce.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.RequireRole;
 import com.devsuperior.dscommerce.dto.UserDTO;
+import com.devsuperior.dscommerce.dto.UserImportReportDTO;
+import com.devsuperior.dscommerce.dto.UserStatsDTO;
+import com.devsuperior.dscommerce.services.UserImportService;
 import com.devsuperior.dscommerce.services.UserService;
+import com.devsuperior.dscommerce.services.UserStatsService;
 
 @RestController
 @RequestMapping(value = "/users")
@@ -17,10 +29,33 @@ public class UserController {
     @Autowired
     private UserService service;
 
-    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+    @Autowired
+    private UserStatsService statsService;
+
+    @Autowired
+    private UserImportService importService;
+
+    @RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
     @GetMapping(value = "/me")
     public ResponseEntity<UserDTO> getMe() {
     	UserDTO dto = service.getMe();
         return ResponseEntity.ok(dto);
     }
+
+    @RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
+    @GetMapping(value = "/me/stats")
+    public ResponseEntity<UserStatsDTO> getMyStats() {
+        UserStatsDTO dto = statsService.findMyStats();
+        return ResponseEntity.ok(dto);
+    }
+
+    @RequireRole(AccessRole.ADMIN)
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UserImportReportDTO> importUsers(@RequestParam("file") MultipartFile file,
+            @RequestParam(name = "mode", defaultValue = "create") String mode) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            UserImportReportDTO dto = importService.importUsers(in, "upsert".equalsIgnoreCase(mode));
+            return ResponseEntity.ok(dto);
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.time.Instant;
+
+public class OrderIngestionDTO {
+
+	private String id;
+	private String status;
+	private Instant moment;
+	private Long orderId;
+	private String error;
+	
+	public OrderIngestionDTO(String id, String status, Instant moment, Long orderId, String error) {
+		this.id = id;
+		this.status = status;
+		this.moment = moment;
+		this.orderId = orderId;
+		this.error = error;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public String getError() {
+		return error;
+	}
+}
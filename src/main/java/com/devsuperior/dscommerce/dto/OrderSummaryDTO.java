@@ -0,0 +1,61 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.time.Instant;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.OrderSummary;
+
+public class OrderSummaryDTO {
+
+    private Long id;
+    private Instant moment;
+    private OrderStatus status;
+    private Long clientId;
+    private String clientName;
+    private Integer itemCount;
+    private Double total;
+    private String firstProductName;
+
+    public OrderSummaryDTO(OrderSummary entity) {
+        id = entity.getId();
+        moment = entity.getMoment();
+        status = entity.getStatus();
+        clientId = entity.getClientId();
+        clientName = entity.getClientName();
+        itemCount = entity.getItemCount();
+        total = entity.getTotal();
+        firstProductName = entity.getFirstProductName();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getMoment() {
+        return moment;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public String getClientName() {
+        return clientName;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public Double getTotal() {
+        return total;
+    }
+
+    public String getFirstProductName() {
+        return firstProductName;
+    }
+}
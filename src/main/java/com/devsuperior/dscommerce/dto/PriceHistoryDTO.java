@@ -0,0 +1,36 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.time.Instant;
+
+import com.devsuperior.dscommerce.entities.PriceHistory;
+
+public class PriceHistoryDTO {
+
+    private Long productId;
+    private Double price;
+    private Instant validFrom;
+
+    public PriceHistoryDTO(Long productId, Double price, Instant validFrom) {
+        this.productId = productId;
+        this.price = price;
+        this.validFrom = validFrom;
+    }
+
+    public PriceHistoryDTO(PriceHistory entity) {
+        productId = entity.getProductId();
+        price = entity.getPrice();
+        validFrom = entity.getValidFrom();
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Instant getValidFrom() {
+        return validFrom;
+    }
+}
@@ -0,0 +1,44 @@
+package com.devsuperior.dscommerce.dto;
+
+public class ReconciliationReportDTO {
+
+	private long lines;
+	private long matched;
+	private long unmatched;
+	private long duplicates;
+	private long elapsedMillis;
+	private double linesPerSecond;
+	
+	public ReconciliationReportDTO(long lines, long matched, long unmatched, long duplicates, long elapsedMillis) {
+		this.lines = lines;
+		this.matched = matched;
+		this.unmatched = unmatched;
+		this.duplicates = duplicates;
+		this.elapsedMillis = elapsedMillis;
+		this.linesPerSecond = elapsedMillis > 0 ? lines * 1000.0 / elapsedMillis : lines;
+	}
+
+	public long getLines() {
+		return lines;
+	}
+
+	public long getMatched() {
+		return matched;
+	}
+
+	public long getUnmatched() {
+		return unmatched;
+	}
+
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public double getLinesPerSecond() {
+		return linesPerSecond;
+	}
+}
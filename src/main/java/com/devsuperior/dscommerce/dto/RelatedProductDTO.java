@@ -0,0 +1,38 @@
+package com.devsuperior.dscommerce.dto;
+
+public class RelatedProductDTO {
+
+    private Long id;
+    private String name;
+    private Double price;
+    private String imgUrl;
+    private Integer count;
+
+    public RelatedProductDTO(ProductMinDTO product, Integer count) {
+        id = product.getId();
+        name = product.getName();
+        price = product.getPrice();
+        imgUrl = product.getImgUrl();
+        this.count = count;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,46 @@
+package com.devsuperior.dscommerce.dto;
+
+public class TopSellerDTO {
+
+    private Long id;
+    private String name;
+    private Double price;
+    private String imgUrl;
+    private Long quantity;
+
+    public TopSellerDTO(Long id, String name, Double price, String imgUrl, Long quantity) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.imgUrl = imgUrl;
+        this.quantity = quantity;
+    }
+
+    public TopSellerDTO(ProductMinDTO product, Long quantity) {
+        id = product.getId();
+        name = product.getName();
+        price = product.getPrice();
+        imgUrl = product.getImgUrl();
+        this.quantity = quantity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+}
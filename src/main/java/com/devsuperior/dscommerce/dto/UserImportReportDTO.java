@@ -0,0 +1,57 @@
+package com.devsuperior.dscommerce.dto;
+
+public class UserImportReportDTO {
+
+	private long lines;
+	private long created;
+	private long updated;
+	private long skipped;
+	private long invalid;
+	private long duplicates;
+	private long elapsedMillis;
+	private double usersPerSecond;
+	
+	public UserImportReportDTO(long lines, long created, long updated, long skipped, long invalid, long duplicates,
+			long elapsedMillis) {
+		this.lines = lines;
+		this.created = created;
+		this.updated = updated;
+		this.skipped = skipped;
+		this.invalid = invalid;
+		this.duplicates = duplicates;
+		this.elapsedMillis = elapsedMillis;
+		this.usersPerSecond = elapsedMillis > 0 ? (created + updated) * 1000.0 / elapsedMillis : created + updated;
+	}
+
+	public long getLines() {
+		return lines;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public long getUpdated() {
+		return updated;
+	}
+
+	public long getSkipped() {
+		return skipped;
+	}
+
+	public long getInvalid() {
+		return invalid;
+	}
+
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public double getUsersPerSecond() {
+		return usersPerSecond;
+	}
+}
@@ -0,0 +1,28 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.time.Instant;
+
+public class UserStatsDTO {
+
+    private Long orderCount;
+    private Double totalSpent;
+    private Instant lastOrderMoment;
+
+    public UserStatsDTO(Long orderCount, Double totalSpent, Instant lastOrderMoment) {
+        this.orderCount = orderCount;
+        this.totalSpent = totalSpent;
+        this.lastOrderMoment = lastOrderMoment;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public Double getTotalSpent() {
+        return totalSpent;
+    }
+
+    public Instant getLastOrderMoment() {
+        return lastOrderMoment;
+    }
+}
@@ -10,7 +10,7 @@ import java.util.Set;
 
 
 @Entity
-@Table(name = "tb_order")
+@Table(name = "tb_order", indexes = @Index(name = "idx_order_status_moment", columnList = "status, moment"))
 public class Order {
 
     @Id
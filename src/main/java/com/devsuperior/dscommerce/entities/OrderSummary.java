@@ -0,0 +1,93 @@
+package com.devsuperior.dscommerce.entities;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "tb_order_summary", indexes = @Index(name = "idx_order_summary_client", columnList = "client_id, moment"))
+public class OrderSummary {
+
+    @Id
+    private Long id;
+
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private Instant moment;
+
+    private OrderStatus status;
+
+    @Column(name = "client_id")
+    private Long clientId;
+
+    private String clientName;
+    private Integer itemCount;
+    private Double total;
+    private String firstProductName;
+
+    public OrderSummary() {
+    }
+
+    public OrderSummary(Long id, Instant moment, OrderStatus status, Long clientId, String clientName,
+            Integer itemCount, Double total, String firstProductName) {
+        this.id = id;
+        this.moment = moment;
+        this.status = status;
+        this.clientId = clientId;
+        this.clientName = clientName;
+        this.itemCount = itemCount;
+        this.total = total;
+        this.firstProductName = firstProductName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getMoment() {
+        return moment;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public String getClientName() {
+        return clientName;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public Double getTotal() {
+        return total;
+    }
+
+    public String getFirstProductName() {
+        return firstProductName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        OrderSummary that = (OrderSummary) o;
+
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.devsuperior.dscommerce.events;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Published inside the transaction that writes the items of an order, with the full item list as
+ * it stands after the change. Listeners that must only see committed changes use
+ * {@code @TransactionalEventListener}.
+ */
+public class OrderItemsChangedEvent {
+
+	private final Long orderId;
+	private final Instant moment;
+	private final List<Item> items;
+
+	public OrderItemsChangedEvent(Long orderId, Instant moment, List<Item> items) {
+		this.orderId = orderId;
+		this.moment = moment;
+		this.items = List.copyOf(items);
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public static class Item {
+
+		private final Long productId;
+		private final Integer quantity;
+		private final Double price;
+
+		public Item(Long productId, Integer quantity, Double price) {
+			this.productId = productId;
+			this.quantity = quantity;
+			this.price = price;
+		}
+
+		public Long getProductId() {
+			return productId;
+		}
+
+		public Integer getQuantity() {
+			return quantity;
+		}
+
+		public Double getPrice() {
+			return price;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.devsuperior.dscommerce.events;
+
+import java.time.Instant;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+
+/**
+ * Published inside the transaction that changes the status of an order. Listeners that must
+ * only see committed changes use {@code @TransactionalEventListener}. The client id and order
+ * total are filled in on creation, payment and expiry and may be {@code null} otherwise.
+ */
+public class OrderStatusChangedEvent {
+
+	private final Long orderId;
+	private final OrderStatus status;
+	private final Instant moment;
+	private final Long clientId;
+	private final Double total;
+	
+	public OrderStatusChangedEvent(Long orderId, OrderStatus status, Instant moment) {
+		this(orderId, status, moment, null, null);
+	}
+	
+	public OrderStatusChangedEvent(Long orderId, OrderStatus status, Instant moment, Long clientId, Double total) {
+		this.orderId = orderId;
+		this.status = status;
+		this.moment = moment;
+		this.clientId = clientId;
+		this.total = total;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public OrderStatus getStatus() {
+		return status;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public Double getTotal() {
+		return total;
+	}
+}
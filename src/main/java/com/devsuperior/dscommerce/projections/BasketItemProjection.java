@@ -0,0 +1,10 @@
+package com.devsuperior.dscommerce.projections;
+
+public interface BasketItemProjection {
+
+	Long getOrderId();
+	Long getProductId();
+	String getName();
+	Double getPrice();
+	String getImgUrl();
+}
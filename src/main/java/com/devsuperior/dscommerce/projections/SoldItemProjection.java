@@ -0,0 +1,10 @@
+package com.devsuperior.dscommerce.projections;
+
+import java.time.Instant;
+
+public interface SoldItemProjection {
+
+	Long getProductId();
+	Instant getMoment();
+	Integer getQuantity();
+}
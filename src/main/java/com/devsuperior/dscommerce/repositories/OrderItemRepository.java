@@ -1,10 +1,28 @@
 package com.devsuperior.dscommerce.repositories;
 
+import java.time.Instant;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.devsuperior.dscommerce.entities.OrderItem;
 import com.devsuperior.dscommerce.entities.OrderItemPK;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.projections.BasketItemProjection;
+import com.devsuperior.dscommerce.projections.SoldItemProjection;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, OrderItemPK> {
 
+	@Query("SELECT obj.id.product.id AS productId, obj.id.order.moment AS moment, obj.quantity AS quantity "
+			+ "FROM OrderItem obj "
+			+ "WHERE obj.id.order.moment >= :since AND obj.id.order.status <> :excludedStatus")
+	List<SoldItemProjection> searchSoldItemsSince(Instant since, OrderStatus excludedStatus);
+	
+	@Query("SELECT obj.id.order.id AS orderId, obj.id.product.id AS productId, obj.id.product.name AS name, "
+			+ "obj.id.product.price AS price, obj.id.product.imgUrl AS imgUrl "
+			+ "FROM OrderItem obj "
+			+ "WHERE obj.id.order.status <> :excludedStatus "
+			+ "ORDER BY obj.id.order.id")
+	List<BasketItemProjection> searchBasketItems(OrderStatus excludedStatus);
 }
@@ -1,9 +1,21 @@
 package com.devsuperior.dscommerce.repositories;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.projections.OrderMomentProjection;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+	@Query("SELECT obj.id AS id, obj.moment AS moment FROM Order obj WHERE obj.status = :status")
+	List<OrderMomentProjection> searchByStatus(OrderStatus status);
+	
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE Order obj SET obj.status = :newStatus WHERE obj.id = :id AND obj.status = :expectedStatus")
+	int updateStatus(Long id, OrderStatus expectedStatus, OrderStatus newStatus);
 }
@@ -0,0 +1,12 @@
+package com.devsuperior.dscommerce.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.devsuperior.dscommerce.entities.OrderSummary;
+
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+	Page<OrderSummary> findByClientId(Long clientId, Pageable pageable);
+}
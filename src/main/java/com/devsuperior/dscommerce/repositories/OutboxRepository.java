@@ -0,0 +1,37 @@
+package com.devsuperior.dscommerce.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import com.devsuperior.dscommerce.entities.OutboxMessage;
+import com.devsuperior.dscommerce.projections.OutboxStatsProjection;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+
+	// lock.timeout = -2 pede SKIP LOCKED; dialetos sem suporte (H2) fazem FOR UPDATE simples
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("SELECT obj FROM OutboxMessage obj WHERE obj.attempts < :maxAttempts AND obj.type IN :types ORDER BY obj.id")
+	List<OutboxMessage> searchPending(int maxAttempts, Collection<String> types, Pageable pageable);
+	
+	@Query("SELECT COUNT(obj) AS pending, MIN(obj.createdAt) AS oldest FROM OutboxMessage obj WHERE obj.attempts < :maxAttempts")
+	OutboxStatsProjection searchStats(int maxAttempts);
+	
+	@Modifying
+	@Query("DELETE FROM OutboxMessage obj WHERE obj.id IN :ids")
+	int deleteByIds(List<Long> ids);
+	
+	@Modifying
+	@Query("UPDATE OutboxMessage obj SET obj.attempts = obj.attempts + 1 WHERE obj.id IN :ids")
+	int incrementAttempts(List<Long> ids);
+}
@@ -0,0 +1,16 @@
+package com.devsuperior.dscommerce.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.devsuperior.dscommerce.entities.PriceHistory;
+
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
+
+	Optional<PriceHistory> findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(Long productId, Instant at);
+
+	List<PriceHistory> findByProductIdOrderByValidFromAscIdAsc(Long productId);
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import com.devsuperior.dscommerce.entities.User;
@@ -12,7 +13,7 @@ import com.devsuperior.dscommerce.projections.UserDetailsProjection;
 public interface UserRepository extends JpaRepository<User, Long> {
 
 	@Query(nativeQuery = true, value = """
-				SELECT tb_user.email AS username, tb_user.password, tb_role.id AS roleId, tb_role.authority
+				SELECT tb_user.id AS userId, tb_user.email AS username, tb_user.password, tb_role.id AS roleId, tb_role.authority
 				FROM tb_user
 				INNER JOIN tb_user_role ON tb_user.id = tb_user_role.user_id
 				INNER JOIN tb_role ON tb_role.id = tb_user_role.role_id
@@ -21,4 +22,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	List<UserDetailsProjection> searchUserAndRolesByEmail(String email);
 	
 	Optional<User> findByEmail(String email);
+
+	@Modifying
+	@Query("UPDATE User obj SET obj.password = :newPassword WHERE obj.email = :email AND obj.password = :oldPassword")
+	int updatePassword(String email, String oldPassword, String newPassword);
 }
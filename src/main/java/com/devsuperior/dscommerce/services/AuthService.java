@@ -1,8 +1,12 @@
 package com.devsuperior.dscommerce.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.RoleMaskAuthenticationToken;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
 
@@ -12,7 +16,18 @@ public class AuthService {
 	@Autowired
 	private UserService userService;
 	
+	/**
+	 * Checks the caller against the role mask and user id decoded from its token. Tokens without
+	 * a user id, and callers not authenticated by JWT, are checked against the database.
+	 */
 	public void validateSelfOrAdmin(Long userId) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication instanceof RoleMaskAuthenticationToken token && token.getUserId() != null) {
+			if (!token.hasRole(AccessRole.ADMIN) && !token.getUserId().equals(userId)) {
+				throw new ForbiddenException("Access denied. Should be self or admin");
+			}
+			return;
+		}
 		User me = userService.authenticated();
 		if (me.hasRole("ROLE_ADMIN")) {
 			return;
@@ -0,0 +1,47 @@
+package com.devsuperior.dscommerce.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintenance of the {@code oauth2_authorization} table behind the JDBC authorization store.
+ * <p>
+ * Authorizations of the password grant are saved with the user's email as principal name, so a
+ * user's refresh tokens can be revoked in one statement when their credentials change. Access
+ * tokens are self-contained JWTs and stay valid until they expire. Rows whose access and refresh
+ * tokens have both expired are purged periodically, since nothing can use them anymore.
+ */
+@Service
+public class AuthorizationStoreService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationStoreService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deletes every authorization of the user. Call it in the transaction that changes the
+     * password or the roles, so the revocation commits with the change.
+     */
+    public int revokeAll(String username) {
+        return jdbcTemplate.update("DELETE FROM oauth2_authorization WHERE principal_name = ?", username);
+    }
+
+    @Scheduled(fixedDelayString = "${security.authorization.purge-interval-ms}")
+    public void purgeExpired() {
+        Timestamp now = Timestamp.from(Instant.now());
+        int purged = jdbcTemplate.update("DELETE FROM oauth2_authorization "
+                + "WHERE (access_token_expires_at IS NULL OR access_token_expires_at < ?) "
+                + "AND (refresh_token_expires_at IS NULL OR refresh_token_expires_at < ?)", now, now);
+        if (purged > 0) {
+            logger.info("Purged {} expired authorizations", purged);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.RelatedProductDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.projections.BasketItemProjection;
+import com.devsuperior.dscommerce.repositories.OrderItemRepository;
+import com.devsuperior.dscommerce.util.LongIntHashMap;
+
+/**
+ * "Customers also bought" from product co-occurrence in orders.
+ * <p>
+ * The sparse product x product matrix is stored as one {@link LongIntHashMap} row per product,
+ * counting the orders in which each other product appeared with it. New orders update the rows
+ * incrementally; the history is loaded at startup by splitting the baskets across a fork-join
+ * pool, where each task builds its own partial matrix and the partials are merged pairwise.
+ * Each row caches its top {@code max-neighbours} ranking until the row changes again, so a
+ * lookup is a map get plus a copy of at most that many entries.
+ */
+@Service
+public class CoOccurrenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoOccurrenceService.class);
+
+    private static final int BACKFILL_THRESHOLD = 1024;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private final int maxNeighbours;
+    private final Map<Long, ProductMinDTO> products = new ConcurrentHashMap<>();
+    private volatile Map<Long, Row> rows = new ConcurrentHashMap<>();
+
+    public CoOccurrenceService(@Value("${co-occurrence.max-neighbours}") int maxNeighbours) {
+        this.maxNeighbours = maxNeighbours;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void backfill() {
+        List<BasketItemProjection> items = orderItemRepository.searchBasketItems(OrderStatus.CANCELED);
+
+        List<long[]> baskets = new ArrayList<>();
+        List<Long> current = new ArrayList<>();
+        Long currentOrderId = null;
+        for (BasketItemProjection item : items) {
+            products.put(item.getProductId(),
+                    new ProductMinDTO(item.getProductId(), item.getName(), item.getPrice(), item.getImgUrl()));
+            if (!item.getOrderId().equals(currentOrderId)) {
+                addBasket(baskets, current);
+                current.clear();
+                currentOrderId = item.getOrderId();
+            }
+            current.add(item.getProductId());
+        }
+        addBasket(baskets, current);
+
+        Map<Long, LongIntHashMap> matrix = ForkJoinPool.commonPool()
+                .invoke(new BackfillTask(baskets, 0, baskets.size()));
+        Map<Long, Row> result = new ConcurrentHashMap<>();
+        matrix.forEach((productId, counts) -> result.put(productId, new Row(counts)));
+        rows = result;
+        logger.info("Co-occurrence matrix built from {} orders, {} products", baskets.size(), result.size());
+    }
+
+    public void record(List<ProductMinDTO> basket) {
+        Map<Long, ProductMinDTO> distinct = new LinkedHashMap<>();
+        for (ProductMinDTO product : basket) {
+            distinct.put(product.getId(), product);
+        }
+        products.putAll(distinct);
+        if (distinct.size() < 2) {
+            return;
+        }
+        Long[] ids = distinct.keySet().toArray(new Long[0]);
+        Map<Long, Row> matrix = rows;
+        for (Long id : ids) {
+            Row row = matrix.computeIfAbsent(id, x -> new Row(new LongIntHashMap()));
+            row.addAll(ids, id);
+        }
+    }
+
+    public List<RelatedProductDTO> findNeighbours(Long productId, int size) {
+        Row row = rows.get(productId);
+        if (row == null) {
+            return List.of();
+        }
+        Ranking ranking = row.ranking(maxNeighbours);
+        int n = Math.min(Math.max(size, 0), ranking.ids.length);
+        List<RelatedProductDTO> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ProductMinDTO product = products.get(ranking.ids[i]);
+            if (product != null) {
+                result.add(new RelatedProductDTO(product, ranking.counts[i]));
+            }
+        }
+        return result;
+    }
+
+    private static void addBasket(List<long[]> baskets, List<Long> productIds) {
+        if (productIds.size() > 1) {
+            baskets.add(productIds.stream().mapToLong(Long::longValue).distinct().toArray());
+        }
+    }
+
+    static Map<Long, LongIntHashMap> count(List<long[]> baskets, int from, int to) {
+        Map<Long, LongIntHashMap> matrix = new HashMap<>();
+        for (int b = from; b < to; b++) {
+            long[] basket = baskets.get(b);
+            for (long a : basket) {
+                LongIntHashMap row = matrix.computeIfAbsent(a, x -> new LongIntHashMap());
+                for (long other : basket) {
+                    if (other != a) {
+                        row.addTo(other, 1);
+                    }
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private static class BackfillTask extends RecursiveTask<Map<Long, LongIntHashMap>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<long[]> baskets;
+        private final int from;
+        private final int to;
+
+        private BackfillTask(List<long[]> baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, LongIntHashMap> compute() {
+            if (to - from <= BACKFILL_THRESHOLD) {
+                return count(baskets, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            BackfillTask left = new BackfillTask(baskets, from, middle);
+            left.fork();
+            Map<Long, LongIntHashMap> right = new BackfillTask(baskets, middle, to).compute();
+            Map<Long, LongIntHashMap> merged = left.join();
+            if (merged.size() < right.size()) {
+                Map<Long, LongIntHashMap> swap = merged;
+                merged = right;
+                right = swap;
+            }
+            for (Map.Entry<Long, LongIntHashMap> entry : right.entrySet()) {
+                LongIntHashMap row = merged.get(entry.getKey());
+                if (row == null) {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+                else {
+                    row.addAll(entry.getValue());
+                }
+            }
+            return merged;
+        }
+    }
+
+    private static class Row {
+
+        private final LongIntHashMap counts;
+        private volatile Ranking ranking;
+
+        private Row(LongIntHashMap counts) {
+            this.counts = counts;
+        }
+
+        private synchronized void addAll(Long[] basket, Long self) {
+            for (Long other : basket) {
+                if (!other.equals(self)) {
+                    counts.addTo(other, 1);
+                }
+            }
+            ranking = null;
+        }
+
+        private Ranking ranking(int limit) {
+            Ranking cached = ranking;
+            if (cached != null) {
+                return cached;
+            }
+            synchronized (this) {
+                if (ranking == null) {
+                    ranking = Ranking.of(counts, limit);
+                }
+                return ranking;
+            }
+        }
+    }
+
+    private static class Ranking {
+
+        private final long[] ids;
+        private final int[] counts;
+
+        private Ranking(long[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        // seleção por heap mínimo de tamanho limit: O(n log limit)
+        private static Ranking of(LongIntHashMap row, int limit) {
+            PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1,
+                    (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+            row.forEach((id, count) -> {
+                heap.add(new long[] { id, count });
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            });
+            long[][] top = heap.toArray(new long[0][]);
+            Arrays.sort(top, (a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+            long[] ids = new long[top.length];
+            int[] counts = new int[top.length];
+            for (int i = 0; i < top.length; i++) {
+                ids[i] = top[i][0];
+                counts[i] = (int) top[i][1];
+            }
+            return new Ranking(ids, counts);
+        }
+    }
+}
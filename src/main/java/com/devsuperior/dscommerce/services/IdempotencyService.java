@@ -0,0 +1,136 @@
+package com.devsuperior.dscommerce.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
+import com.devsuperior.dscommerce.services.exceptions.ServiceUnavailableException;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+
+/**
+ * Bounded, TTL-based store of order submissions keyed by the client's {@code Idempotency-Key}.
+ * <p>
+ * The first request for a key runs the submission; concurrent duplicates wait on the same
+ * in-flight future and later retries get the stored {@link OrderDTO} back without opening a
+ * transaction. Keys are scoped to the logged user, and reusing a key with a different set of
+ * items is rejected. Failed submissions are forgotten so the client can retry them.
+ * <p>
+ * Only expired, finished entries are evicted: dropping a live key would let a retry run the
+ * order again. When the store is full of live keys, new keys get a 503 until some expire.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    @Autowired
+    private CustomUserUtil customUserUtil;
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyService(@Value("${idempotency.ttl-minutes}") long ttlMinutes,
+            @Value("${idempotency.max-entries}") int maxEntries) {
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.maxEntries = maxEntries;
+    }
+
+    public OrderDTO execute(String idempotencyKey, OrderDTO request, Supplier<OrderDTO> submission) {
+        String key = customUserUtil.getLoggedUsername() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            evict(Instant.now());
+            entry = entries.get(key);
+            if (entry == null) {
+                if (entries.size() >= maxEntries) {
+                    throw new ServiceUnavailableException("Muitas requisições em andamento, tente novamente em instantes",
+                            RETRY_AFTER_SECONDS);
+                }
+                entry = new Entry(fingerprint, Instant.now().plus(ttl));
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new ConflictException("Idempotency-Key já utilizada em outra requisição");
+        }
+        if (!owner) {
+            return await(entry.result);
+        }
+
+        try {
+            OrderDTO result = submission.get();
+            entry.result.complete(result);
+            return result;
+        }
+        catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evict(Instant now) {
+        // insertion order is expiry order, so the scan stops at the first live entry
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.expiresAt.isAfter(now)) {
+                break;
+            }
+            if (entry.result.isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    private static OrderDTO await(CompletableFuture<OrderDTO> result) {
+        try {
+            return result.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static String fingerprint(OrderDTO dto) {
+        return dto.getItems().stream()
+                .map(x -> x.getProductId() + "x" + x.getQuantity())
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private static class Entry {
+
+        private final String fingerprint;
+        private final Instant expiresAt;
+        private final CompletableFuture<OrderDTO> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint, Instant expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscommerce.entities.Inventory;
+import com.devsuperior.dscommerce.repositories.InventoryRepository;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Stock reservation without row locks.
+ * <p>
+ * Each product's available quantity is loaded once from {@code tb_inventory} into an in-memory
+ * counter, and reservations are applied with a compare-and-set loop, so buyers of the same SKU
+ * never block each other and the counter can never go below zero. Every change is also added to
+ * a per-product pending delta, and the deltas are written back to the database in one JDBC batch
+ * on a fixed delay; a delta whose row does not exist yet is inserted as the row by the same flush.
+ * <p>
+ * Every product is stock-controlled: {@link #register} creates the zero row when the product is
+ * created, and a product without a row has no stock until it is restocked.
+ * <p>
+ * The counters are the source of truth while the application runs, so this assumes a single
+ * node owns the inventory; the database lags by at most one flush interval.
+ */
+@Service
+public class InventoryService {
+
+    @Autowired
+    private InventoryRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the empty inventory row of a new product, in the transaction that creates it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void register(Long productId) {
+        repository.save(new Inventory(productId, 0));
+    }
+
+    public void reserve(Long productId, int quantity) {
+        Counter counter = counterOf(productId);
+        int current;
+        do {
+            current = counter.available.get();
+            if (current < quantity) {
+                throw new ConflictException("Estoque insuficiente para o produto " + productId);
+            }
+        } while (!counter.available.compareAndSet(current, current - quantity));
+        addDelta(productId, -quantity);
+    }
+
+    public void release(Long productId, int quantity) {
+        counterOf(productId).available.addAndGet(quantity);
+        addDelta(productId, quantity);
+    }
+
+    /**
+     * Adds stock; like every other change it reaches the database with the next flush, which
+     * also creates the row if the product has none.
+     */
+    public void restock(Long productId, int quantity) {
+        release(productId, quantity);
+    }
+
+    public int available(Long productId) {
+        return counterOf(productId).available.get();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, AtomicInteger> entry : pendingDeltas.entrySet()) {
+            int delta = entry.getValue().getAndSet(0);
+            if (delta != 0) {
+                batch.add(new Object[] { delta, entry.getKey() });
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int[] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate("UPDATE tb_inventory SET quantity = quantity + ? WHERE product_id = ?", batch);
+        }
+        catch (RuntimeException e) {
+            restoreDeltas(batch);
+            throw e;
+        }
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(batch.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("INSERT INTO tb_inventory (quantity, product_id) VALUES (?, ?)", missing);
+        }
+        catch (RuntimeException e) {
+            restoreDeltas(missing);
+            throw e;
+        }
+    }
+
+    private void restoreDeltas(List<Object[]> batch) {
+        for (Object[] args : batch) {
+            addDelta((Long) args[1], (Integer) args[0]);
+        }
+    }
+
+    private Counter counterOf(Long productId) {
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        // loaded outside the map so the query does not hold a ConcurrentHashMap bin lock;
+        // concurrent loaders may both query, but only the first counter is kept
+        Counter loaded = new Counter(repository.findById(productId).map(x -> x.getQuantity()).orElse(0));
+        counter = counters.putIfAbsent(productId, loaded);
+        return counter != null ? counter : loaded;
+    }
+
+    private void addDelta(Long productId, int delta) {
+        pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private static class Counter {
+
+        private final AtomicInteger available;
+
+        private Counter(int available) {
+            this.available = new AtomicInteger(available);
+        }
+    }
+}
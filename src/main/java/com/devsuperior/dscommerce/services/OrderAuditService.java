@@ -0,0 +1,247 @@
+package com.devsuperior.dscommerce.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.events.OrderItemsChangedEvent;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+import com.devsuperior.dscommerce.util.EventLog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Audit trail of order mutations kept outside the database.
+ * <p>
+ * Every committed {@link OrderStatusChangedEvent} (creation, payment, expiry, reconciliation) and
+ * {@link OrderItemsChangedEvent} (the items written with the order) is encoded as a binary record
+ * tagged with its kind and queued; a single writer thread drains the queue into an
+ * {@link EventLog} and forces the segment to disk once per drained batch. The listeners run on the
+ * thread that committed the order, so they never wait: when the queue is full the record is
+ * dropped and counted in {@code audit.log.dropped}. Records still queued when the process dies
+ * are lost.
+ */
+@Service
+public class OrderAuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderAuditService.class);
+
+    static final byte STATUS_RECORD = 1;
+    static final byte ITEMS_RECORD = 2;
+
+    private static final int STATUS_RECORD_SIZE = 1 + 8 + 1 + 8 + 8;
+    private static final int ITEMS_RECORD_HEADER_SIZE = 1 + 8 + 8 + 8 + 4;
+    private static final int ITEM_SIZE = 8 + 4 + 8;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final BlockingQueue<byte[]> queue;
+    private final Counter dropped;
+
+    private EventLog log;
+    private volatile boolean running;
+    private volatile boolean dropping;
+    private Thread writer;
+
+    public OrderAuditService(@Value("${audit.log.enabled}") boolean enabled,
+            @Value("${audit.log.dir}") String dir,
+            @Value("${audit.log.segment-size-bytes}") int segmentSize,
+            @Value("${audit.log.queue-capacity}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentSize = segmentSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("audit.log.queue.size", queue, BlockingQueue::size)
+                .description("Audit records waiting for the writer thread")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.log.dropped")
+                .description("Audit records dropped because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        try {
+            log = new EventLog(dir, segmentSize);
+        }
+        catch (IllegalStateException e) {
+            logger.warn("Order audit log disabled: {}", e.getMessage());
+            return;
+        }
+        if (log.getTruncatedBytes() > 0) {
+            logger.warn("Order audit log recovered from a torn tail, {} bytes discarded", log.getTruncatedBytes());
+        }
+        running = true;
+        writer = new Thread(this::drain, "order-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        log.close();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (writer != null) {
+            enqueue(encode(event, Instant.now()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsChanged(OrderItemsChangedEvent event) {
+        if (writer != null) {
+            enqueue(encode(event, Instant.now()));
+        }
+    }
+
+    /**
+     * Replays the log from the beginning, in append order. Records of an unknown kind are skipped.
+     */
+    public void replay(Consumer<OrderStatusChangedEvent> statusConsumer, Consumer<OrderItemsChangedEvent> itemsConsumer) {
+        if (log == null) {
+            return;
+        }
+        try (EventLog.Scanner scanner = log.scanner()) {
+            byte[] record;
+            while ((record = scanner.next()) != null) {
+                if (record[0] == STATUS_RECORD) {
+                    statusConsumer.accept(decodeStatus(record));
+                }
+                else if (record[0] == ITEMS_RECORD) {
+                    itemsConsumer.accept(decodeItems(record));
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void enqueue(byte[] record) {
+        if (queue.offer(record)) {
+            dropping = false;
+            return;
+        }
+        dropped.increment();
+        if (!dropping) {
+            dropping = true;
+            logger.warn("Order audit queue is full, dropping records until the writer catches up");
+        }
+    }
+
+    private void drain() {
+        List<byte[]> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                byte[] first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (byte[] record : batch) {
+                    append(record);
+                }
+                log.flush();
+            }
+            catch (InterruptedException e) {
+                running = false;
+            }
+            catch (IOException | RuntimeException e) {
+                logger.error("Failed to append {} records to the order audit log", batch.size(), e);
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        try {
+            log.append(record);
+        }
+        catch (IllegalArgumentException e) {
+            // an order with more items than fit in a segment: skip it, keep the rest of the batch
+            logger.error("Dropping an audit record of {} bytes: {}", record.length, e.getMessage());
+            dropped.increment();
+        }
+    }
+
+    static byte[] encode(OrderStatusChangedEvent event, Instant recordedAt) {
+        return ByteBuffer.allocate(STATUS_RECORD_SIZE)
+                .put(STATUS_RECORD)
+                .putLong(event.getOrderId())
+                .put((byte) event.getStatus().ordinal())
+                .putLong(event.getMoment().toEpochMilli())
+                .putLong(recordedAt.toEpochMilli())
+                .array();
+    }
+
+    static byte[] encode(OrderItemsChangedEvent event, Instant recordedAt) {
+        List<OrderItemsChangedEvent.Item> items = event.getItems();
+        ByteBuffer buffer = ByteBuffer.allocate(ITEMS_RECORD_HEADER_SIZE + items.size() * ITEM_SIZE)
+                .put(ITEMS_RECORD)
+                .putLong(event.getOrderId())
+                .putLong(event.getMoment().toEpochMilli())
+                .putLong(recordedAt.toEpochMilli())
+                .putInt(items.size());
+        for (OrderItemsChangedEvent.Item item : items) {
+            buffer.putLong(item.getProductId())
+                    .putInt(item.getQuantity())
+                    .putDouble(item.getPrice());
+        }
+        return buffer.array();
+    }
+
+    static OrderStatusChangedEvent decodeStatus(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record, 1, record.length - 1);
+        Long orderId = buffer.getLong();
+        OrderStatus status = OrderStatus.values()[buffer.get()];
+        Instant moment = Instant.ofEpochMilli(buffer.getLong());
+        return new OrderStatusChangedEvent(orderId, status, moment);
+    }
+
+    static OrderItemsChangedEvent decodeItems(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record, 1, record.length - 1);
+        Long orderId = buffer.getLong();
+        Instant moment = Instant.ofEpochMilli(buffer.getLong());
+        buffer.getLong();
+        int count = buffer.getInt();
+        List<OrderItemsChangedEvent.Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new OrderItemsChangedEvent.Item(buffer.getLong(), buffer.getInt(), buffer.getDouble()));
+        }
+        return new OrderItemsChangedEvent(orderId, moment, items);
+    }
+}
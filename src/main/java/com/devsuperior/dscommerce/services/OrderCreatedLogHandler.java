@@ -0,0 +1,31 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscommerce.entities.OutboxMessage;
+
+/**
+ * Writes every new order to the {@code orders.created} log, the feed fulfilment and e-mail read
+ * until they have handlers of their own. Logging the same message twice is harmless, so it is
+ * idempotent as {@link OutboxHandler} requires.
+ */
+@Service
+public class OrderCreatedLogHandler implements OutboxHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger("orders.created");
+
+    @Override
+    public Set<String> types() {
+        return Set.of(OutboxService.ORDER_CREATED);
+    }
+
+    @Override
+    public void handle(OutboxMessage message) {
+        logger.info("Order {} created at {}: {}", message.getAggregateId(), message.getCreatedAt(),
+                message.getPayload());
+    }
+}
@@ -0,0 +1,127 @@
+package com.devsuperior.dscommerce.services;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server-sent event streams of order status changes.
+ * <p>
+ * Subscribers are plain {@link SseEmitter}s kept per order id; the servlet request goes async, so
+ * an idle subscriber holds no thread. Committed {@link OrderStatusChangedEvent}s are pushed to
+ * the subscribers of that order, and streams end when the order reaches a final status. A
+ * heartbeat comment keeps proxies from closing idle connections and is also how broken
+ * connections are found and dropped. It runs on the shared scheduler, whose pool is sized by
+ * {@code spring.task.scheduling.pool.size} so slow sockets do not delay the other jobs.
+ */
+@Service
+public class OrderEventService {
+
+    @Autowired
+    private OrderService orderService;
+
+    private final long timeoutMillis;
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public OrderEventService(@Value("${orders.events.timeout-ms}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public SseEmitter subscribe(Long orderId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> remove(orderId, emitter));
+        emitter.onTimeout(() -> remove(orderId, emitter));
+        emitter.onError(e -> remove(orderId, emitter));
+
+        // registered before the status is read, so a change committed in between is still pushed
+        subscribers.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(emitter);
+        OrderDTO order;
+        try {
+            order = orderService.findById(orderId);
+        }
+        catch (RuntimeException e) {
+            remove(orderId, emitter);
+            throw e;
+        }
+
+        OrderStatus status = order.getStatus();
+        send(orderId, emitter, SseEmitter.event().name("status").data(status.name()));
+        if (isFinal(status)) {
+            remove(orderId, emitter);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(event.getOrderId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(event.getOrderId(), emitter, SseEmitter.event().name("status").data(event.getStatus().name()));
+        }
+        if (isFinal(event.getStatus())) {
+            Set<SseEmitter> removed = subscribers.remove(event.getOrderId());
+            if (removed != null) {
+                removed.forEach(SseEmitter::complete);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.events.heartbeat-ms}")
+    public void heartbeat() {
+        for (Map.Entry<Long, Set<SseEmitter>> entry : subscribers.entrySet()) {
+            for (SseEmitter emitter : entry.getValue()) {
+                send(entry.getKey(), emitter, SseEmitter.event().comment("keepalive"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+
+    int subscriberCount(Long orderId) {
+        Set<SseEmitter> emitters = subscribers.get(orderId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    private void send(Long orderId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        }
+        catch (IOException | IllegalStateException e) {
+            remove(orderId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(Long orderId, SseEmitter emitter) {
+        subscribers.computeIfPresent(orderId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static boolean isFinal(OrderStatus status) {
+        return status == OrderStatus.DELIVERED || status == OrderStatus.CANCELED;
+    }
+}
@@ -0,0 +1,188 @@
+package com.devsuperior.dscommerce.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+import com.devsuperior.dscommerce.projections.OrderMomentProjection;
+import com.devsuperior.dscommerce.repositories.OrderRepository;
+import com.devsuperior.dscommerce.util.HashedTimingWheel;
+
+/**
+ * Cancels orders left in {@code WAITING_PAYMENT} past the payment timeout.
+ * <p>
+ * Deadlines live in a {@link HashedTimingWheel}: new orders are scheduled on commit and the wheel
+ * is rebuilt at startup from the {@code (status, moment)} index, so nothing ever scans
+ * {@code tb_order}. Each tick cancels the expired ids in JDBC batches of conditional UPDATEs;
+ * only the rows still waiting for payment change, and the stock of those orders is released.
+ * Cancellations are published with the client id and the order total, like creation and payment.
+ * <p>
+ * Enabled by default ({@code orders.expiry.enabled}) and switched off in the test profile: the
+ * rebuild at startup cancels every order that has waited longer than the timeout, which would
+ * include the seed data the integration tests rely on.
+ */
+@Service
+public class OrderExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExpiryService.class);
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final int batchSize;
+    private final HashedTimingWheel wheel;
+
+    private volatile boolean ready;
+
+    public OrderExpiryService(@Value("${orders.expiry.enabled}") boolean enabled,
+            @Value("${orders.expiry.payment-timeout-minutes}") long timeoutMinutes,
+            @Value("${orders.expiry.tick-ms}") long tickMillis,
+            @Value("${orders.expiry.wheel-size}") int wheelSize,
+            @Value("${orders.expiry.batch-size}") int batchSize) {
+        this.enabled = enabled;
+        this.timeout = Duration.ofMinutes(timeoutMinutes);
+        this.batchSize = batchSize;
+        this.wheel = new HashedTimingWheel(tickMillis, wheelSize, Instant.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<OrderMomentProjection> result = repository.searchByStatus(OrderStatus.WAITING_PAYMENT);
+        for (OrderMomentProjection order : result) {
+            schedule(order.getId(), order.getMoment());
+        }
+        ready = true;
+        logger.info("Order expiry wheel rebuilt with {} unpaid orders", result.size());
+    }
+
+    public void schedule(Long orderId, Instant moment) {
+        if (enabled) {
+            wheel.schedule(orderId, moment.plus(timeout));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.expiry.tick-ms}")
+    public void expire() {
+        if (!ready) {
+            return;
+        }
+        List<Long> expired = wheel.advance(Instant.now());
+        for (int i = 0; i < expired.size(); i += batchSize) {
+            List<Long> chunk = expired.subList(i, Math.min(i + batchSize, expired.size()));
+            try {
+                cancel(chunk);
+            }
+            catch (RuntimeException e) {
+                logger.error("Failed to cancel expired orders {}", chunk, e);
+                for (Long id : chunk) {
+                    wheel.schedule(id, Instant.now());
+                }
+            }
+        }
+    }
+
+    List<Long> cancel(List<Long> orderIds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<CanceledItem> releases = new ArrayList<>();
+        List<Long> canceled = transactionTemplate.execute(status -> {
+            List<Object[]> batch = new ArrayList<>(orderIds.size());
+            for (Long id : orderIds) {
+                batch.add(new Object[] { OrderStatus.CANCELED.ordinal(), id, OrderStatus.WAITING_PAYMENT.ordinal() });
+            }
+            int[] counts = jdbcTemplate.batchUpdate("UPDATE tb_order SET status = ? WHERE id = ? AND status = ?", batch);
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    ids.add(orderIds.get(i));
+                }
+            }
+            if (ids.isEmpty()) {
+                return ids;
+            }
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            List<CanceledItem> items = jdbcTemplate.query(
+                    "SELECT o.id, o.client_id, i.product_id, i.quantity, i.price FROM tb_order o "
+                            + "LEFT JOIN tb_order_item i ON i.order_id = o.id WHERE o.id IN (" + placeholders + ")",
+                    (rs, rowNum) -> new CanceledItem(rs.getLong("id"), rs.getLong("client_id"),
+                            rs.getObject("product_id", Long.class), rs.getInt("quantity"), rs.getDouble("price")),
+                    ids.toArray());
+
+            Map<Long, Long> clients = new HashMap<>();
+            Map<Long, Double> totals = new HashMap<>();
+            for (CanceledItem item : items) {
+                clients.put(item.orderId, item.clientId);
+                totals.merge(item.orderId, item.price * item.quantity, Double::sum);
+                if (item.productId != null) {
+                    releases.add(item);
+                }
+            }
+            Instant now = Instant.now();
+            for (Long id : ids) {
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(id, OrderStatus.CANCELED, now,
+                        clients.get(id), totals.getOrDefault(id, 0.0)));
+            }
+            return ids;
+        });
+        for (CanceledItem item : releases) {
+            inventoryService.release(item.productId, item.quantity);
+        }
+        return canceled;
+    }
+
+    /**
+     * One item of a canceled order, or the order alone when it has no items.
+     */
+    static class CanceledItem {
+
+        private final Long orderId;
+        private final Long clientId;
+        private final Long productId;
+        private final int quantity;
+        private final double price;
+
+        CanceledItem(Long orderId, Long clientId, Long productId, int quantity, double price) {
+            this.orderId = orderId;
+            this.clientId = clientId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+}
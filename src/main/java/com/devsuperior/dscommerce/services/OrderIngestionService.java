@@ -0,0 +1,322 @@
+package com.devsuperior.dscommerce.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderIngestionDTO;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.services.exceptions.TooManyRequestsException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional asynchronous order ingestion with group commit.
+ * <p>
+ * When enabled, validated orders are put on a bounded in-memory queue and the request returns
+ * right away with a ticket. A single writer thread drains the queue and commits up to
+ * {@code batch-size} orders per transaction, waiting at most {@code batch-timeout-ms} for a batch
+ * to fill. If a batch fails, its orders are retried one per transaction so a bad order does not
+ * take the others down. A full queue is rejected with 429.
+ * <p>
+ * Crash safety: a ticket only means the order was accepted in memory. Orders still queued, or in
+ * a batch that has not committed, are lost if the process dies, and the ticket disappears with it.
+ * Clients must treat an unknown ticket as "not created" and resubmit; sending an
+ * {@code Idempotency-Key} lets a resubmission that raced a successful commit find the ticket
+ * again while the process is alive. As in {@link IdempotencyService}, the key is claimed
+ * atomically, reusing it with other items is rejected with 409 and a failed ticket releases it.
+ * On shutdown the writer drains the queue before stopping.
+ * <p>
+ * Finished tickets stay queryable for {@code retention-minutes}, but at most {@code max-tickets}
+ * of them are kept: past that, arbitrary finished tickets (and their idempotency keys) are dropped
+ * down to 90% of the limit. Queued tickets are never dropped; the queue already bounds them.
+ * <p>
+ * Throughput, measured with {@code OrderIngestionBenchmarkTests} (2,000 orders of one item from
+ * one client, H2 in memory, SQL logging off, three runs): 93 to 110 orders/s through
+ * {@link OrderService#insert} one transaction at a time, 188 to 209 orders/s with group commits of
+ * 100, about twice as many. Only the commits are saved, so the gain should be larger on a database
+ * that syncs every commit to disk.
+ */
+@Service
+public class OrderIngestionService {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIngestionService.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long batchTimeoutNanos;
+    private final Duration retention;
+    private final int maxTickets;
+    private final int lowWaterMark;
+
+    private final BlockingQueue<Ticket> queue;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> idempotencyKeys = new ConcurrentHashMap<>();
+    private final ReentrantLock trimLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private Thread writer;
+    private long lastCleanup = System.nanoTime();
+
+    public OrderIngestionService(@Value("${orders.ingestion.async}") boolean enabled,
+            @Value("${orders.ingestion.queue-capacity}") int queueCapacity,
+            @Value("${orders.ingestion.batch-size}") int batchSize,
+            @Value("${orders.ingestion.batch-timeout-ms}") long batchTimeoutMillis,
+            @Value("${orders.ingestion.retention-minutes}") long retentionMinutes,
+            @Value("${orders.ingestion.max-tickets}") int maxTickets) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(batchTimeoutMillis);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.maxTickets = maxTickets;
+        this.lowWaterMark = maxTickets - maxTickets / 10;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "order-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public OrderIngestionDTO submit(OrderDTO dto, String idempotencyKey) {
+        User client = userService.authenticated();
+        if (idempotencyKey == null) {
+            return enqueue(dto, client).toDTO();
+        }
+        Ticket ticket = new Ticket(dto, client);
+        ticket.idempotencyKey = client.getId() + ":" + idempotencyKey;
+        ticket.fingerprint = IdempotencyService.fingerprint(dto);
+        // claims the key atomically; a failed ticket gives the key back so the client can retry
+        Ticket claimed = idempotencyKeys.compute(ticket.idempotencyKey,
+                (key, existing) -> existing == null || FAILED.equals(existing.status) ? ticket : existing);
+        if (claimed != ticket) {
+            if (!claimed.fingerprint.equals(ticket.fingerprint)) {
+                throw new ConflictException("Idempotency-Key já utilizada em outra requisição");
+            }
+            return claimed.toDTO();
+        }
+        try {
+            enqueue(ticket);
+        }
+        catch (TooManyRequestsException e) {
+            idempotencyKeys.remove(ticket.idempotencyKey, ticket);
+            throw e;
+        }
+        return ticket.toDTO();
+    }
+
+    public OrderIngestionDTO findById(String id) {
+        Ticket ticket = tickets.get(id);
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Recurso não encontrado");
+        }
+        authService.validateSelfOrAdmin(ticket.client.getId());
+        return ticket.toDTO();
+    }
+
+    Ticket enqueue(OrderDTO dto, User client) {
+        return enqueue(new Ticket(dto, client));
+    }
+
+    private Ticket enqueue(Ticket ticket) {
+        tickets.put(ticket.id, ticket);
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.id);
+            throw new TooManyRequestsException("Fila de pedidos cheia, tente novamente em instantes", 1);
+        }
+        trimIfFull();
+        return ticket;
+    }
+
+    private void trimIfFull() {
+        if (tickets.size() <= maxTickets || !trimLock.tryLock()) {
+            return;
+        }
+        try {
+            Iterator<Ticket> it = tickets.values().iterator();
+            while (tickets.size() > lowWaterMark && it.hasNext()) {
+                Ticket ticket = it.next();
+                if (!QUEUED.equals(ticket.status)) {
+                    it.remove();
+                    forget(ticket);
+                }
+            }
+        }
+        finally {
+            trimLock.unlock();
+        }
+    }
+
+    private void forget(Ticket ticket) {
+        if (ticket.idempotencyKey != null) {
+            idempotencyKeys.remove(ticket.idempotencyKey, ticket);
+        }
+    }
+
+    private void drain() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    cleanup();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + batchTimeoutNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Ticket next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+                cleanup();
+            }
+            catch (InterruptedException e) {
+                running = false;
+            }
+            catch (RuntimeException e) {
+                logger.error("Order ingestion writer failed", e);
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void commit(List<Ticket> batch) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            List<OrderDTO> result = transactionTemplate.execute(status -> {
+                List<OrderDTO> list = new ArrayList<>(batch.size());
+                for (Ticket ticket : batch) {
+                    list.add(orderService.insert(ticket.dto, ticket.client));
+                }
+                return list;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(result.get(i));
+            }
+        }
+        catch (RuntimeException e) {
+            for (Ticket ticket : batch) {
+                try {
+                    ticket.complete(orderService.insert(ticket.dto, ticket.client));
+                }
+                catch (RuntimeException ex) {
+                    ticket.fail(ex);
+                }
+            }
+        }
+    }
+
+    private void cleanup() {
+        if (System.nanoTime() - lastCleanup < TimeUnit.SECONDS.toNanos(1)) {
+            return;
+        }
+        lastCleanup = System.nanoTime();
+        Instant limit = Instant.now().minus(retention);
+        tickets.values().removeIf(ticket -> {
+            boolean expired = !QUEUED.equals(ticket.status) && ticket.moment.isBefore(limit);
+            if (expired) {
+                forget(ticket);
+            }
+            return expired;
+        });
+    }
+
+    static class Ticket {
+
+        private final String id = UUID.randomUUID().toString();
+        private final Instant moment = Instant.now();
+        private final OrderDTO dto;
+        private final User client;
+        private String idempotencyKey;
+        private String fingerprint;
+        private volatile String status = QUEUED;
+        private volatile Long orderId;
+        private volatile String error;
+
+        private Ticket(OrderDTO dto, User client) {
+            this.dto = dto;
+            this.client = client;
+        }
+
+        private void complete(OrderDTO result) {
+            orderId = result.getId();
+            status = COMPLETED;
+        }
+
+        private void fail(RuntimeException e) {
+            error = e.getMessage();
+            status = FAILED;
+        }
+
+        String getStatus() {
+            return status;
+        }
+
+        OrderIngestionDTO toDTO() {
+            return new OrderIngestionDTO(id, status, moment, orderId, error);
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package com.devsuperior.dscommerce.services;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.devsuperior.dscommerce.dto.OrderDTO;
 import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Order;
 import com.devsuperior.dscommerce.entities.OrderItem;
 import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.Payment;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.events.OrderItemsChangedEvent;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
 import com.devsuperior.dscommerce.repositories.OrderItemRepository;
 import com.devsuperior.dscommerce.repositories.OrderRepository;
+import com.devsuperior.dscommerce.repositories.PaymentRepository;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
 
 @Service
@@ -30,12 +42,33 @@ public class OrderService {
     @Autowired
     private OrderItemRepository orderItemRepository;
     
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
     @Autowired
     private UserService userService;
     
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private TopSellerService topSellerService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+
+    @Autowired
+    private OrderExpiryService orderExpiryService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional(readOnly = true)
     public OrderDTO findById(Long id) {
         Order order = repository.findById(id).orElseThrow(
@@ -46,14 +79,18 @@ public class OrderService {
 
     @Transactional
 	public OrderDTO insert(OrderDTO dto) {
+    	User user = userService.authenticated();
+    	return insert(dto, user);
+	}
+
+    @Transactional
+	public OrderDTO insert(OrderDTO dto, User client) {
 		
     	Order order = new Order();
     	
     	order.setMoment(Instant.now());
     	order.setStatus(OrderStatus.WAITING_PAYMENT);
-    	
-    	User user = userService.authenticated();
-    	order.setClient(user);
+    	order.setClient(client);
     	
     	for (OrderItemDTO itemDto : dto.getItems()) {
     		Product product = productRepository.getReferenceById(itemDto.getProductId());
@@ -61,9 +98,95 @@ public class OrderService {
     		order.getItems().add(item);
     	}
     	
+    	for (OrderItem item : order.getItems()) {
+    		inventoryService.reserve(item.getProduct().getId(), item.getQuantity());
+    		afterRollback(() -> inventoryService.release(item.getProduct().getId(), item.getQuantity()));
+    	}
+    	
     	repository.save(order);
     	orderItemRepository.saveAll(order.getItems());
     	
-    	return new OrderDTO(order);
+    	OrderDTO result = new OrderDTO(order);
+    	outboxService.enqueue(OutboxService.ORDER_CREATED, order.getId(), result);
+    	
+    	eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getStatus(), order.getMoment(),
+    			client.getId(), result.getTotal()));
+    	List<OrderItemsChangedEvent.Item> items = new ArrayList<>();
+    	for (OrderItem item : order.getItems()) {
+    		items.add(new OrderItemsChangedEvent.Item(item.getProduct().getId(), item.getQuantity(), item.getPrice()));
+    	}
+    	eventPublisher.publishEvent(new OrderItemsChangedEvent(order.getId(), order.getMoment(), items));
+    	
+    	afterCommit(() -> {
+    		orderExpiryService.schedule(order.getId(), order.getMoment());
+    		List<ProductMinDTO> basket = new ArrayList<>();
+    		for (OrderItem item : order.getItems()) {
+    			ProductMinDTO product = new ProductMinDTO(item.getProduct());
+    			topSellerService.record(product.getId(), item.getQuantity(), order.getMoment());
+    			basket.add(product);
+    		}
+    		coOccurrenceService.record(basket);
+    	});
+    	
+    	return result;
 	}
+
+    /**
+     * Records the payment of an order waiting for it. The status moves with a single conditional
+     * UPDATE instead of a read-modify-write, so when the same order is paid concurrently exactly
+     * one caller wins and the others get a 409, without any pessimistic lock.
+     */
+    @Transactional
+    public OrderDTO pay(Long id) {
+        Order order = repository.findById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Recurso não encontrado"));
+        authService.validateSelfOrAdmin(order.getClient().getId());
+
+        Instant paidAt = Instant.now();
+        try {
+            int updated = repository.updateStatus(id, OrderStatus.WAITING_PAYMENT, OrderStatus.PAID);
+            if (updated == 0) {
+                throw new ConflictException("Pedido não está aguardando pagamento");
+            }
+            Payment payment = new Payment(null, paidAt, repository.getReferenceById(id));
+            paymentRepository.saveAndFlush(payment);
+        }
+        catch (DataIntegrityViolationException e) {
+            // the order already has a payment row: another payment won the race
+            throw new ConflictException("Pedido não está aguardando pagamento");
+        }
+
+        order = repository.findById(id).get();
+        OrderDTO result = new OrderDTO(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(id, OrderStatus.PAID, paidAt,
+                order.getClient().getId(), result.getTotal()));
+        return result;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
 }
@@ -0,0 +1,136 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscommerce.dto.OrderSummaryDTO;
+import com.devsuperior.dscommerce.entities.OrderSummary;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+import com.devsuperior.dscommerce.repositories.OrderSummaryRepository;
+
+/**
+ * Denormalized read model of orders in {@code tb_order_summary}: client name, item count, total,
+ * status and first product name, so order listings read a single table.
+ * <p>
+ * Committed {@link OrderStatusChangedEvent}s only mark the order as dirty; a scheduled job
+ * refreshes the dirty orders in chunks with a DELETE and an INSERT ... SELECT over the normalized
+ * tables, so repeated changes to the same order collapse into one refresh and order writes never
+ * wait on the projection. Listings may lag writes by up to one refresh interval. The table is
+ * rebuilt from scratch at startup and by {@link #rebuild()}, which is also how changes to the
+ * projection query are applied.
+ */
+@Service
+public class OrderSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSummaryService.class);
+
+    private static final String DELETE_SQL = "DELETE FROM tb_order_summary";
+
+    private static final String INSERT_SQL = "INSERT INTO tb_order_summary "
+            + "(id, moment, status, client_id, client_name, item_count, total, first_product_name) "
+            + "SELECT o.id, o.moment, o.status, u.id, u.name, "
+            + "(SELECT COALESCE(SUM(i.quantity), 0) FROM tb_order_item i WHERE i.order_id = o.id), "
+            + "(SELECT COALESCE(SUM(i.price * i.quantity), 0) FROM tb_order_item i WHERE i.order_id = o.id), "
+            + "(SELECT p.name FROM tb_order_item i JOIN tb_product p ON p.id = i.product_id "
+            + "WHERE i.order_id = o.id ORDER BY p.id FETCH FIRST 1 ROWS ONLY) "
+            + "FROM tb_order o JOIN tb_user u ON u.id = o.client_id";
+
+    @Autowired
+    private OrderSummaryRepository repository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final int chunkSize;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public OrderSummaryService(@Value("${orders.summary.chunk-size}") int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryDTO> findAll(Pageable pageable) {
+        User me = userService.authenticated();
+        Page<OrderSummary> result = me.hasRole("ROLE_ADMIN")
+                ? repository.findAll(pageable)
+                : repository.findByClientId(me.getId(), pageable);
+        return result.map(x -> new OrderSummaryDTO(x));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        dirty.add(event.getOrderId());
+    }
+
+    @Scheduled(fixedDelayString = "${orders.summary.refresh-interval-ms}")
+    public void refresh() {
+        List<Long> ids = new ArrayList<>();
+        Iterator<Long> it = dirty.iterator();
+        while (it.hasNext()) {
+            ids.add(it.next());
+            it.remove();
+        }
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            List<Long> chunk = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+            try {
+                refresh(chunk);
+            }
+            catch (RuntimeException e) {
+                logger.error("Failed to refresh order summaries {}", chunk, e);
+                dirty.addAll(chunk);
+            }
+        }
+    }
+
+    public int rebuild() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int count = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_SQL);
+            return jdbcTemplate.update(INSERT_SQL);
+        });
+        logger.info("Order summary rebuilt with {} orders", count);
+        return count;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    void refresh(List<Long> orderIds) {
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        Object[] args = orderIds.toArray();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_SQL + " WHERE id IN (" + placeholders + ")", args);
+            jdbcTemplate.update(INSERT_SQL + " WHERE o.id IN (" + placeholders + ")", args);
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.Set;
+
+import com.devsuperior.dscommerce.entities.OutboxMessage;
+
+/**
+ * In-process consumer of outbox messages. Every handler bean gets each message of its
+ * {@link #types()} at least once; throwing makes the whole message be retried later, so handlers
+ * must be idempotent.
+ */
+public interface OutboxHandler {
+
+	Set<String> types();
+
+	void handle(OutboxMessage message);
+}
@@ -0,0 +1,174 @@
+package com.devsuperior.dscommerce.services;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscommerce.entities.OutboxMessage;
+import com.devsuperior.dscommerce.projections.OutboxStatsProjection;
+import com.devsuperior.dscommerce.repositories.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Transactional outbox for messages to downstream consumers.
+ * <p>
+ * {@link #enqueue} must run inside the transaction that changes the data, so the message is
+ * stored if and only if that transaction commits. A scheduled dispatcher locks a batch of pending
+ * rows ({@code SKIP LOCKED} where the dialect supports it, so several nodes can share the table),
+ * hands each message to every {@link OutboxHandler} of its type and then deletes the delivered
+ * rows and bumps the attempt count of the failed ones with one statement each. Messages that fail
+ * {@code max-attempts} times stay in the table for inspection and are no longer picked up.
+ * <p>
+ * Only messages of a type some handler takes are polled. The others stay in the table, still
+ * counted as pending and in the lag, until a handler for them is deployed and works through the
+ * backlog.
+ * <p>
+ * Exposes {@code outbox.pending}, {@code outbox.lag} (age of the oldest pending message),
+ * {@code outbox.delivered}, {@code outbox.failed} and {@code outbox.delivery.latency}.
+ */
+@Service
+public class OutboxService {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    @Autowired
+    private OutboxRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private List<OutboxHandler> handlers = List.of();
+
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final AtomicLong pending = new AtomicLong();
+    private volatile Instant oldest;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Timer deliveryLatency;
+
+    public OutboxService(@Value("${outbox.batch-size}") int batchSize,
+            @Value("${outbox.max-attempts}") int maxAttempts,
+            MeterRegistry meterRegistry) {
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Messages waiting to be delivered")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", this, x -> x.lagSeconds())
+                .description("Age of the oldest pending message")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        delivered = Counter.builder("outbox.delivered").register(meterRegistry);
+        failed = Counter.builder("outbox.failed").register(meterRegistry);
+        deliveryLatency = Timer.builder("outbox.delivery.latency")
+                .description("Time between a message being stored and being delivered")
+                .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String type, Long aggregateId, Object payload) {
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            repository.save(new OutboxMessage(null, type, aggregateId, json, Instant.now()));
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms}")
+    public void dispatch() {
+        int sent;
+        do {
+            sent = dispatchBatch();
+        } while (sent == batchSize);
+        refreshStats();
+    }
+
+    int dispatchBatch() {
+        Set<String> types = new HashSet<>();
+        for (OutboxHandler handler : handlers) {
+            types.addAll(handler.types());
+        }
+        if (types.isEmpty()) {
+            return 0;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            List<OutboxMessage> batch = repository.searchPending(maxAttempts, types, PageRequest.of(0, batchSize));
+            List<Long> sent = new ArrayList<>(batch.size());
+            List<Long> failures = new ArrayList<>();
+            for (OutboxMessage message : batch) {
+                try {
+                    for (OutboxHandler handler : handlers) {
+                        if (handler.types().contains(message.getType())) {
+                            handler.handle(message);
+                        }
+                    }
+                    sent.add(message.getId());
+                    deliveryLatency.record(Duration.between(message.getCreatedAt(), Instant.now()));
+                }
+                catch (RuntimeException e) {
+                    logger.warn("Outbox message {} ({}) failed on attempt {}", message.getId(), message.getType(),
+                            message.getAttempts() + 1, e);
+                    failures.add(message.getId());
+                }
+            }
+            if (!sent.isEmpty()) {
+                repository.deleteByIds(sent);
+            }
+            if (!failures.isEmpty()) {
+                repository.incrementAttempts(failures);
+            }
+            delivered.increment(sent.size());
+            failed.increment(failures.size());
+            return sent.size();
+        });
+    }
+
+    private void refreshStats() {
+        OutboxStatsProjection stats = repository.searchStats(maxAttempts);
+        pending.set(stats.getPending() == null ? 0 : stats.getPending());
+        oldest = stats.getOldest();
+    }
+
+    private double lagSeconds() {
+        Instant first = oldest;
+        if (first == null) {
+            return 0.0;
+        }
+        return Math.max(0, Duration.between(first, Instant.now()).toMillis()) / (double) TimeUnit.SECONDS.toMillis(1);
+    }
+}
@@ -0,0 +1,226 @@
+package com.devsuperior.dscommerce.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscommerce.dto.ReconciliationReportDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+
+/**
+ * Reconciles a payment provider settlement file against {@code tb_order}.
+ * <p>
+ * The file is a CSV of {@code orderId,paidAt} lines (ISO-8601 instants, optional header) and is
+ * streamed, never loaded whole. Lines are grouped in chunks of {@code chunk-size}, each chunk is
+ * sorted by order id and matched with a single {@code IN} query, and the orders still waiting for
+ * payment are moved to {@code PAID} and get their {@code tb_payment} row through two JDBC batches
+ * in one transaction per chunk. The status change is the same conditional UPDATE used by the
+ * payment endpoint, so a line never pays an order twice.
+ * <p>
+ * Lines for unknown, canceled or malformed orders are counted as unmatched; lines repeated in the
+ * file or for orders already paid are counted as duplicates.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final int chunkSize;
+
+    public PaymentReconciliationService(@Value("${payments.reconciliation.chunk-size}") int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public ReconciliationReportDTO reconcile(InputStream settlement) {
+        long start = System.nanoTime();
+        Counts counts = new Counts();
+        Set<Long> seen = new HashSet<>();
+        List<Line> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(settlement, StandardCharsets.UTF_8))) {
+            String text;
+            boolean first = true;
+            while ((text = reader.readLine()) != null) {
+                text = text.trim();
+                if (text.isEmpty()) {
+                    continue;
+                }
+                Line line = parse(text);
+                if (first && line == null && !Character.isDigit(text.charAt(0))) {
+                    first = false;
+                    continue; // cabeçalho
+                }
+                first = false;
+                counts.lines++;
+                if (line == null) {
+                    counts.unmatched++;
+                }
+                else if (!seen.add(line.orderId)) {
+                    counts.duplicates++;
+                }
+                else {
+                    chunk.add(line);
+                    if (chunk.size() == chunkSize) {
+                        process(chunk, counts);
+                        chunk.clear();
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            process(chunk, counts);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        ReconciliationReportDTO report = new ReconciliationReportDTO(counts.lines, counts.matched,
+                counts.unmatched, counts.duplicates, elapsedMillis);
+        logger.info("Settlement reconciled: {} lines, {} matched, {} unmatched, {} duplicates, {} lines/s",
+                report.getLines(), report.getMatched(), report.getUnmatched(), report.getDuplicates(),
+                Math.round(report.getLinesPerSecond()));
+        return report;
+    }
+
+    private void process(List<Line> chunk, Counts counts) {
+        chunk.sort(Comparator.comparingLong(x -> x.orderId));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, OrderRow> orders = findOrders(chunk);
+
+            List<Line> payable = new ArrayList<>(chunk.size());
+            for (Line line : chunk) {
+                OrderRow order = orders.get(line.orderId);
+                if (order == null || order.status == OrderStatus.CANCELED.ordinal()) {
+                    counts.unmatched++;
+                }
+                else if (order.status == OrderStatus.WAITING_PAYMENT.ordinal()) {
+                    payable.add(line);
+                }
+                else {
+                    counts.duplicates++;
+                }
+            }
+            if (payable.isEmpty()) {
+                return;
+            }
+
+            List<Object[]> updates = new ArrayList<>(payable.size());
+            for (Line line : payable) {
+                updates.add(new Object[] { OrderStatus.PAID.ordinal(), line.orderId, OrderStatus.WAITING_PAYMENT.ordinal() });
+            }
+            int[] updated = jdbcTemplate.batchUpdate("UPDATE tb_order SET status = ? WHERE id = ? AND status = ?", updates);
+
+            List<Object[]> payments = new ArrayList<>(payable.size());
+            for (int i = 0; i < updated.length; i++) {
+                Line line = payable.get(i);
+                if (updated[i] > 0) {
+                    payments.add(new Object[] { line.orderId, Timestamp.from(line.paidAt) });
+                    OrderRow order = orders.get(line.orderId);
+                    eventPublisher.publishEvent(new OrderStatusChangedEvent(line.orderId, OrderStatus.PAID, line.paidAt,
+                            order.clientId, order.total));
+                }
+                else {
+                    counts.duplicates++; // pago por outra via entre a consulta e o UPDATE
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO tb_payment (order_id, moment) VALUES (?, ?)", payments);
+            counts.matched += payments.size();
+        });
+    }
+
+    private Map<Long, OrderRow> findOrders(List<Line> chunk) {
+        String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+        Object[] ids = chunk.stream().map(x -> x.orderId).toArray();
+        Map<Long, OrderRow> result = new HashMap<>();
+        jdbcTemplate.query("SELECT o.id, o.status, o.client_id, "
+                + "(SELECT COALESCE(SUM(i.price * i.quantity), 0) FROM tb_order_item i WHERE i.order_id = o.id) AS total "
+                + "FROM tb_order o WHERE o.id IN (" + placeholders + ")",
+                rs -> {
+                    result.put(rs.getLong("id"), new OrderRow(rs.getInt("status"), rs.getLong("client_id"), rs.getDouble("total")));
+                }, ids);
+        return result;
+    }
+
+    private static Line parse(String text) {
+        int comma = text.indexOf(',');
+        if (comma < 0) {
+            return null;
+        }
+        try {
+            long orderId = Long.parseLong(text.substring(0, comma).trim());
+            Instant paidAt = Instant.parse(text.substring(comma + 1).trim());
+            return new Line(orderId, paidAt);
+        }
+        catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static class Line {
+
+        private final long orderId;
+        private final Instant paidAt;
+
+        private Line(long orderId, Instant paidAt) {
+            this.orderId = orderId;
+            this.paidAt = paidAt;
+        }
+    }
+
+    private static class OrderRow {
+
+        private final int status;
+        private final Long clientId;
+        private final Double total;
+
+        private OrderRow(int status, Long clientId, Double total) {
+            this.status = status;
+            this.clientId = clientId;
+            this.total = total;
+        }
+    }
+
+    private static class Counts {
+
+        private long lines;
+        private long matched;
+        private long unmatched;
+        private long duplicates;
+    }
+}
@@ -0,0 +1,121 @@
+package com.devsuperior.dscommerce.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.devsuperior.dscommerce.dto.PriceHistoryDTO;
+import com.devsuperior.dscommerce.entities.PriceHistory;
+import com.devsuperior.dscommerce.repositories.PriceHistoryRepository;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.util.PriceTimeline;
+
+/**
+ * Append-only price history of products.
+ * <p>
+ * {@link ProductService} records a row in {@code tb_price_history} when a product is created and
+ * whenever its price changes. As-of lookups are answered from a {@link PriceTimeline} per product
+ * loaded at startup and appended to after each commit; until it is loaded they fall back to the
+ * {@code (product_id, valid_from)} index.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    @Autowired
+    private PriceHistoryRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, PriceTimeline> timelines = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Products created before the history existed get their current price as a first entry, so
+     * their history starts at the first startup instead of being empty.
+     * <p>
+     * Prices recorded while the query runs may already be in the timelines; the loaded entries are
+     * merged into them per product instead of replacing them, and a row seen by both is kept once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        int backfilled = jdbcTemplate.update("INSERT INTO tb_price_history (product_id, price, valid_from) "
+                + "SELECT p.id, p.price, ? FROM tb_product p "
+                + "WHERE NOT EXISTS (SELECT 1 FROM tb_price_history h WHERE h.product_id = p.id)",
+                Timestamp.from(Instant.now()));
+
+        Map<Long, PriceTimeline> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, price, valid_from FROM tb_price_history ORDER BY product_id, valid_from, id",
+                rs -> {
+                    long productId = rs.getLong("product_id");
+                    loaded.put(productId, loaded.getOrDefault(productId, PriceTimeline.EMPTY)
+                            .append(rs.getTimestamp("valid_from").toInstant().toEpochMilli(), rs.getDouble("price")));
+                });
+        loaded.forEach((productId, timeline) -> timelines.merge(productId, timeline, PriceTimeline::merge));
+        ready = true;
+        logger.info("Price timelines loaded for {} products ({} backfilled)", loaded.size(), backfilled);
+    }
+
+    @Transactional
+    public void record(Long productId, Double price) {
+        Instant now = Instant.now();
+        repository.save(new PriceHistory(null, productId, price, now));
+        afterCommit(() -> timelines.compute(productId,
+                (id, timeline) -> (timeline == null ? PriceTimeline.EMPTY : timeline).append(now.toEpochMilli(), price)));
+    }
+
+    @Transactional(readOnly = true)
+    public PriceHistoryDTO findPriceAt(Long productId, Instant at) {
+        if (ready) {
+            PriceTimeline timeline = timelines.get(productId);
+            int index = timeline == null ? -1 : timeline.indexAt(at.toEpochMilli());
+            if (index < 0) {
+                throw new ResourceNotFoundException("Recurso não encontrado");
+            }
+            return new PriceHistoryDTO(productId, timeline.price(index), Instant.ofEpochMilli(timeline.validFrom(index)));
+        }
+        PriceHistory entry = repository.findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(productId, at)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurso não encontrado"));
+        return new PriceHistoryDTO(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PriceHistoryDTO> findHistory(Long productId) {
+        List<PriceHistory> result = repository.findByProductIdOrderByValidFromAscIdAsc(productId);
+        if (result.isEmpty()) {
+            throw new ResourceNotFoundException("Recurso não encontrado");
+        }
+        return result.stream().map(x -> new PriceHistoryDTO(x)).toList();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,5 +1,7 @@
 package com.devsuperior.dscommerce.services;
 
+import java.util.Objects;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
@@ -25,6 +27,15 @@ public class ProductService {
     @Autowired
     private ProductRepository repository;
 
+    @Autowired
+    private SimilarProductService similarProductService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
     @Transactional(readOnly = true)
     public ProductDTO findById(Long id) {
         Product product = repository.findById(id).orElseThrow(
@@ -43,6 +54,9 @@ public class ProductService {
         Product entity = new Product();
         copyDtoToEntity(dto, entity);
         entity = repository.save(entity);
+        inventoryService.register(entity.getId());
+        similarProductService.index(entity);
+        priceHistoryService.record(entity.getId(), entity.getPrice());
         return new ProductDTO(entity);
     }
 
@@ -50,8 +64,13 @@ public class ProductService {
     public ProductDTO update(Long id, ProductDTO dto) {
         try {
             Product entity = repository.getReferenceById(id);
+            Double previousPrice = entity.getPrice();
             copyDtoToEntity(dto, entity);
             entity = repository.save(entity);
+            similarProductService.index(entity);
+            if (!Objects.equals(previousPrice, entity.getPrice())) {
+                priceHistoryService.record(entity.getId(), entity.getPrice());
+            }
             return new ProductDTO(entity);
         }
         catch (EntityNotFoundException e) {
@@ -66,6 +85,7 @@ public class ProductService {
     	}
     	try {
             repository.deleteById(id);    		
+            similarProductService.remove(id);
     	}
         catch (DataIntegrityViolationException e) {
             throw new DatabaseException("Falha de integridade referencial");
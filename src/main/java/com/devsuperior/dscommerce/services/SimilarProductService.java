@@ -0,0 +1,140 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductTextProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.util.TfIdfIndex;
+
+/**
+ * Similar products by the text of their name and description, using a {@link TfIdfIndex}
+ * built at startup and kept current by {@link ProductService} on insert, update and delete.
+ * <p>
+ * Changes reach the index only after their transaction commits. Incremental updates keep the
+ * document frequencies of the last build, so the index is rebuilt every
+ * {@code products.similar.rebuild-interval-ms}; changes committed while a rebuild is reading the
+ * products are replayed onto the new index before it replaces the old one.
+ */
+@Service
+public class SimilarProductService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarProductService.class);
+
+    private static final int MAX_SIZE = 50;
+
+    @Autowired
+    private ProductRepository repository;
+
+    private volatile TfIdfIndex index = new TfIdfIndex();
+
+    // changes committed during a rebuild, by product id; a null text means removed
+    private Map<Long, Optional<String>> pendingChanges;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${products.similar.rebuild-interval-ms}",
+            fixedDelayString = "${products.similar.rebuild-interval-ms}")
+    @Transactional(readOnly = true)
+    public void build() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pendingChanges = new HashMap<>();
+        }
+        Map<Long, String> documents = new HashMap<>();
+        for (ProductTextProjection product : repository.searchAllText()) {
+            documents.put(product.getId(), textOf(product.getName(), product.getDescription()));
+        }
+        TfIdfIndex built = TfIdfIndex.build(documents);
+        synchronized (this) {
+            pendingChanges.forEach((id, text) -> apply(built, id, text));
+            pendingChanges = null;
+            index = built;
+        }
+        logger.info("Similar products index built with {} products in {} ms", documents.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void index(Product product) {
+        String text = textOf(product.getName(), product.getDescription());
+        afterCommit(() -> change(product.getId(), Optional.of(text)));
+    }
+
+    public void remove(Long productId) {
+        afterCommit(() -> change(productId, Optional.empty()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductMinDTO> findSimilar(Long productId, int size) {
+        TfIdfIndex current = index;
+        if (!current.contains(productId) && !repository.existsById(productId)) {
+            throw new ResourceNotFoundException("Recurso não encontrado");
+        }
+        long[] ids = current.similar(productId, Math.min(size, MAX_SIZE));
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Product> products = repository.findAllById(idList).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductMinDTO> result = new ArrayList<>(ids.length);
+        for (Long id : idList) {
+            Product product = products.get(id);
+            if (product != null) {
+                result.add(new ProductMinDTO(product));
+            }
+        }
+        return result;
+    }
+
+    private synchronized void change(Long productId, Optional<String> text) {
+        apply(index, productId, text);
+        if (pendingChanges != null) {
+            pendingChanges.put(productId, text);
+        }
+    }
+
+    private static void apply(TfIdfIndex target, Long productId, Optional<String> text) {
+        if (text.isPresent()) {
+            target.put(productId, text.get());
+        }
+        else {
+            target.remove(productId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String textOf(String name, String description) {
+        return name + " " + (description == null ? "" : description);
+    }
+}
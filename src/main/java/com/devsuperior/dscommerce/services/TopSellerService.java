@@ -0,0 +1,200 @@
+package com.devsuperior.dscommerce.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.TopSellerDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.SoldItemProjection;
+import com.devsuperior.dscommerce.repositories.OrderItemRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+
+/**
+ * In-memory best-sellers leaderboard over a sliding time window.
+ * <p>
+ * The window is split into a ring of fixed-size buckets. Each bucket keeps the quantities
+ * sold per product during its slice of time, and a running total per product is kept for the
+ * whole window. The current top-k is held as an immutable snapshot, so reads are O(k).
+ * A sale only touches the snapshot when the product is already in it or beats its last entry;
+ * a full O(n log k) heap selection happens only when a bucket falls out of the window.
+ * <p>
+ * Only product ids are ranked. Name, price and image are read for the k ranked ids when the
+ * leaderboard is requested, so edits to a product show up right away and products deleted since
+ * their sales are left out.
+ */
+@Service
+public class TopSellerService {
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final int size;
+    private final long bucketMillis;
+    private final int bucketCount;
+
+    private final long[] bucketIndexes;
+    private final List<Map<Long, Long>> buckets;
+    private final Map<Long, Long> totals = new HashMap<>();
+
+    private volatile long currentIndex = Long.MIN_VALUE;
+    private volatile List<Ranked> ranking = List.of();
+
+    public TopSellerService(@Value("${top-sellers.size}") int size,
+            @Value("${top-sellers.window-minutes}") long windowMinutes,
+            @Value("${top-sellers.buckets}") int bucketCount) {
+        this.size = size;
+        this.bucketCount = bucketCount;
+        this.bucketMillis = Math.max(1L, Duration.ofMinutes(windowMinutes).toMillis() / bucketCount);
+        this.bucketIndexes = new long[bucketCount];
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            bucketIndexes[i] = Long.MIN_VALUE;
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        Instant since = Instant.now().minusMillis(bucketMillis * bucketCount);
+        List<SoldItemProjection> result = orderItemRepository.searchSoldItemsSince(since, OrderStatus.CANCELED);
+        for (SoldItemProjection item : result) {
+            record(item.getProductId(), item.getQuantity(), item.getMoment());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<TopSellerDTO> findTopSellers() {
+        if (indexOf(Instant.now()) != currentIndex) {
+            synchronized (this) {
+                advance(Instant.now());
+            }
+        }
+        List<Ranked> current = ranking;
+        if (current.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(current.stream().map(x -> x.productId).toList())
+                .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<TopSellerDTO> result = new ArrayList<>(current.size());
+        for (Ranked entry : current) {
+            Product product = products.get(entry.productId);
+            if (product != null) {
+                result.add(new TopSellerDTO(new ProductMinDTO(product), entry.quantity));
+            }
+        }
+        return result;
+    }
+
+    public synchronized void record(Long productId, int quantity, Instant moment) {
+        advance(Instant.now());
+        long index = indexOf(moment);
+        if (index <= currentIndex - bucketCount || index > currentIndex) {
+            return;
+        }
+        int slot = Math.floorMod(index, bucketCount);
+        bucketIndexes[slot] = index;
+        buckets.get(slot).merge(productId, (long) quantity, Long::sum);
+        long total = totals.merge(productId, (long) quantity, Long::sum);
+        promote(productId, total);
+    }
+
+    private long indexOf(Instant moment) {
+        return Math.floorDiv(moment.toEpochMilli(), bucketMillis);
+    }
+
+    private void advance(Instant now) {
+        long index = indexOf(now);
+        if (index == currentIndex) {
+            return;
+        }
+        boolean expired = false;
+        for (int slot = 0; slot < bucketCount; slot++) {
+            if (bucketIndexes[slot] != Long.MIN_VALUE && bucketIndexes[slot] <= index - bucketCount) {
+                expire(slot);
+                expired = true;
+            }
+        }
+        currentIndex = index;
+        if (expired) {
+            rebuildRanking();
+        }
+    }
+
+    private void expire(int slot) {
+        Map<Long, Long> bucket = buckets.get(slot);
+        for (Map.Entry<Long, Long> entry : bucket.entrySet()) {
+            totals.computeIfPresent(entry.getKey(), (id, total) -> total - entry.getValue() > 0 ? total - entry.getValue() : null);
+        }
+        bucket.clear();
+        bucketIndexes[slot] = Long.MIN_VALUE;
+    }
+
+    private void promote(Long productId, long total) {
+        List<Ranked> current = ranking;
+        boolean ranked = current.stream().anyMatch(x -> x.productId.equals(productId));
+        if (!ranked && current.size() >= size && total <= current.get(current.size() - 1).quantity) {
+            return;
+        }
+        Set<Long> candidates = new HashSet<>();
+        for (Ranked entry : current) {
+            candidates.add(entry.productId);
+        }
+        candidates.add(productId);
+        ranking = select(candidates);
+    }
+
+    private void rebuildRanking() {
+        ranking = select(totals.keySet());
+    }
+
+    private List<Ranked> select(Set<Long> candidates) {
+        Comparator<Long> byTotal = Comparator.comparingLong((Long id) -> totals.get(id)).thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Long> heap = new PriorityQueue<>(byTotal);
+        for (Long id : candidates) {
+            heap.offer(id);
+            if (heap.size() > size) {
+                heap.poll();
+            }
+        }
+        List<Ranked> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Long id = heap.poll();
+            result.add(0, new Ranked(id, totals.get(id)));
+        }
+        return List.copyOf(result);
+    }
+
+    private static class Ranked {
+
+        private final Long productId;
+        private final long quantity;
+
+        private Ranked(Long productId, long quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.devsuperior.dscommerce.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscommerce.dto.UserImportReportDTO;
+import com.devsuperior.dscommerce.entities.Role;
+import com.devsuperior.dscommerce.repositories.RoleRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Creates users in bulk from a CSV file, optionally updating the ones that already exist.
+ * <p>
+ * The file has {@code name,email,phone,birthDate,password,roles} lines (optional header, no
+ * quoting; {@code birthDate} ISO-8601 and optional; {@code roles} separated by {@code ;}, with or
+ * without the {@code ROLE_} prefix, {@code ROLE_CLIENT} when blank) and is streamed in chunks of
+ * {@code chunk-size}. Roles are resolved once per import.
+ * <p>
+ * Emails that already exist are skipped unless {@code upsert} is set; the skipped lines are left
+ * out of the chunk before hashing. With {@code upsert} their data, password and roles are replaced,
+ * their stored authorizations are revoked and their cached credentials evicted.
+ * <p>
+ * Each chunk is hashed first, outside any transaction, by splitting it across a fork-join pool of
+ * {@code hash-parallelism} threads shared by all imports, so a large import cannot take every core
+ * away from logins. The chunk is then written in one transaction: existing emails are looked up
+ * with one {@code IN} query, new users are inserted and, on upsert, existing ones updated in JDBC
+ * batches, and the ids of the new rows are read back with a second query to
+ * batch the {@code tb_user_role} rows. Chunks commit independently.
+ * <p>
+ * Lines that are malformed or name an unknown role are counted as invalid; emails repeated in the
+ * file are counted as duplicates and only the first line is used.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String DEFAULT_ROLE = "ROLE_CLIENT";
+    private static final int HASHES_PER_TASK = 4;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthorizationStoreService authorizationStoreService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final int chunkSize;
+    private final ForkJoinPool hashPool;
+
+    public UserImportService(@Value("${users.import.chunk-size}") int chunkSize,
+            @Value("${users.import.hash-parallelism}") int hashParallelism) {
+        this.chunkSize = chunkSize;
+        this.hashPool = new ForkJoinPool(hashParallelism > 0 ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    public UserImportReportDTO importUsers(InputStream csv, boolean upsert) {
+        long start = System.nanoTime();
+        Map<String, Long> roles = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            roles.put(role.getAuthority(), role.getId());
+        }
+
+        Counts counts = new Counts();
+        Set<String> seen = new HashSet<>();
+        List<Line> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String text;
+            boolean first = true;
+            while ((text = reader.readLine()) != null) {
+                text = text.trim();
+                if (text.isEmpty()) {
+                    continue;
+                }
+                Line line = parse(text, roles);
+                if (first && line == null && text.toLowerCase().startsWith("name,")) {
+                    first = false;
+                    continue; // cabeçalho
+                }
+                first = false;
+                counts.lines++;
+                if (line == null) {
+                    counts.invalid++;
+                }
+                else if (!seen.add(line.email)) {
+                    counts.duplicates++;
+                }
+                else {
+                    chunk.add(line);
+                    if (chunk.size() == chunkSize) {
+                        process(chunk, upsert, counts);
+                        chunk.clear();
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            process(chunk, upsert, counts);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        UserImportReportDTO report = new UserImportReportDTO(counts.lines, counts.created, counts.updated,
+                counts.skipped, counts.invalid, counts.duplicates, elapsedMillis);
+        logger.info("Users imported: {} lines, {} created, {} updated, {} skipped, {} invalid, {} duplicates, {} users/s",
+                report.getLines(), report.getCreated(), report.getUpdated(), report.getSkipped(), report.getInvalid(),
+                report.getDuplicates(), Math.round(report.getUsersPerSecond()));
+        return report;
+    }
+
+    private void process(List<Line> chunk, boolean upsert, Counts counts) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Line> lines = chunk;
+        if (!upsert) {
+            // existing users are skipped, so they are left out before paying for their hashes
+            Map<String, Long> found = transactionTemplate.execute(status -> findIds(chunk));
+            counts.skipped += found.size();
+            lines = chunk.stream().filter(x -> !found.containsKey(x.email)).toList();
+            if (lines.isEmpty()) {
+                return;
+            }
+        }
+        List<Line> pending = lines;
+        hashPool.invoke(new HashTask(pending, 0, pending.size(), passwordEncoder));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Long> existing = findIds(pending);
+
+            List<Line> written = new ArrayList<>(pending.size());
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> roleDeletes = new ArrayList<>();
+            long skipped = 0;
+            for (Line line : pending) {
+                Long id = existing.get(line.email);
+                if (id == null) {
+                    inserts.add(new Object[] { line.name, line.email, line.phone, line.birthDate, line.hash });
+                    written.add(line);
+                }
+                else if (upsert) {
+                    updates.add(new Object[] { line.name, line.phone, line.birthDate, line.hash, id });
+                    roleDeletes.add(new Object[] { id });
+                    written.add(line);
+                }
+                else {
+                    // created by someone else since the first lookup
+                    skipped++;
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO tb_user (name, email, phone, birth_date, password) VALUES (?, ?, ?, ?, ?)", inserts);
+            jdbcTemplate.batchUpdate("UPDATE tb_user SET name = ?, phone = ?, birth_date = ?, password = ? WHERE id = ?", updates);
+            jdbcTemplate.batchUpdate("DELETE FROM tb_user_role WHERE user_id = ?", roleDeletes);
+
+            Map<String, Long> ids = inserts.isEmpty() ? existing : findIds(written);
+            List<Object[]> userRoles = new ArrayList<>();
+            for (Line line : written) {
+                Long userId = ids.get(line.email);
+                for (Long roleId : line.roleIds) {
+                    userRoles.add(new Object[] { userId, roleId });
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO tb_user_role (user_id, role_id) VALUES (?, ?)", userRoles);
+
+            for (Line line : written) {
+                if (existing.containsKey(line.email)) {
+                    authorizationStoreService.revokeAll(line.email);
+                    userService.evictCredentials(line.email);
+                }
+            }
+            counts.created += inserts.size();
+            counts.updated += updates.size();
+            counts.skipped += skipped;
+        });
+    }
+
+    private Map<String, Long> findIds(List<Line> chunk) {
+        String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+        Object[] emails = chunk.stream().map(x -> x.email).toArray();
+        Map<String, Long> result = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM tb_user WHERE email IN (" + placeholders + ")",
+                rs -> {
+                    result.put(rs.getString("email"), rs.getLong("id"));
+                }, emails);
+        return result;
+    }
+
+    private static Line parse(String text, Map<String, Long> roles) {
+        String[] fields = text.split(",", -1);
+        if (fields.length != 6) {
+            return null;
+        }
+        String name = fields[0].trim();
+        String email = fields[1].trim();
+        String password = fields[4].trim();
+        if (name.isEmpty() || email.indexOf('@') < 1 || password.isEmpty()) {
+            return null;
+        }
+        Date birthDate = null;
+        try {
+            if (!fields[3].isBlank()) {
+                birthDate = Date.valueOf(LocalDate.parse(fields[3].trim()));
+            }
+        }
+        catch (DateTimeParseException e) {
+            return null;
+        }
+        Set<Long> roleIds = new LinkedHashSet<>();
+        String authorities = fields[5].isBlank() ? DEFAULT_ROLE : fields[5];
+        for (String authority : authorities.split(";")) {
+            authority = authority.trim().toUpperCase();
+            if (authority.isEmpty()) {
+                continue;
+            }
+            Long roleId = roles.get(authority.startsWith("ROLE_") ? authority : "ROLE_" + authority);
+            if (roleId == null) {
+                return null;
+            }
+            roleIds.add(roleId);
+        }
+        String phone = fields[2].isBlank() ? null : fields[2].trim();
+        return new Line(name, email, phone, birthDate, password, roleIds);
+    }
+
+    @SuppressWarnings("serial")
+    private static class HashTask extends RecursiveAction {
+
+        private final List<Line> lines;
+        private final int from;
+        private final int to;
+        private final PasswordEncoder encoder;
+
+        private HashTask(List<Line> lines, int from, int to, PasswordEncoder encoder) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+            this.encoder = encoder;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= HASHES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    Line line = lines.get(i);
+                    line.hash = encoder.encode(line.password);
+                    line.password = null;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new HashTask(lines, from, middle, encoder), new HashTask(lines, middle, to, encoder));
+        }
+    }
+
+    private static class Line {
+
+        private final String name;
+        private final String email;
+        private final String phone;
+        private final Date birthDate;
+        private final Set<Long> roleIds;
+        private String password;
+        private String hash;
+
+        private Line(String name, String email, String phone, Date birthDate, String password, Set<Long> roleIds) {
+            this.name = name;
+            this.email = email;
+            this.phone = phone;
+            this.birthDate = birthDate;
+            this.password = password;
+            this.roleIds = roleIds;
+        }
+    }
+
+    private static class Counts {
+
+        private long lines;
+        private long created;
+        private long updated;
+        private long skipped;
+        private long invalid;
+        private long duplicates;
+    }
+}
@@ -1,16 +1,27 @@
 package com.devsuperior.dscommerce.services;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.devsuperior.dscommerce.dto.UserDTO;
 import com.devsuperior.dscommerce.entities.Role;
@@ -20,7 +31,7 @@ import com.devsuperior.dscommerce.repositories.UserRepository;
 import com.devsuperior.dscommerce.util.CustomUserUtil;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
 	@Autowired
 	private UserRepository repository;
@@ -28,15 +39,28 @@ public class UserService implements UserDetailsService {
 	@Autowired
 	private CustomUserUtil customUserUtil;
 	
+	@Autowired
+	private AuthorizationStoreService authorizationStoreService;
+	
+	@Value("${security.user-cache.ttl-seconds}")
+	private long credentialsTtlSeconds;
+	
+	@Value("${security.user-cache.max-entries}")
+	private int credentialsMaxEntries;
+	
+	private final Map<String, CredentialsEntry> credentials = new ConcurrentHashMap<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 		
-		List<UserDetailsProjection> result = repository.searchUserAndRolesByEmail(username);
+		List<UserDetailsProjection> result = findCredentials(username);
 		if (result.size() == 0) {
 			throw new UsernameNotFoundException("Email not found");
 		}
 		
 		User user = new User();
+		user.setId(result.get(0).getUserId());
 		user.setEmail(result.get(0).getUsername());
 		user.setPassword(result.get(0).getPassword());
 		for (UserDetailsProjection projection : result) {
@@ -46,6 +70,105 @@ public class UserService implements UserDetailsService {
 		return user;
 	}
 	
+	/**
+	 * Stores a password hash upgraded at login. The update only applies while the stored hash is
+	 * still the one the login verified, so a password changed in the meantime is kept. The stored
+	 * authorizations of the user are revoked with the change; the login in progress saves its own
+	 * afterwards.
+	 */
+	@Override
+	@Transactional
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		if (repository.updatePassword(user.getUsername(), user.getPassword(), newPassword) > 0) {
+			authorizationStoreService.revokeAll(user.getUsername());
+			evictCredentials(user.getUsername());
+			if (user instanceof User entity) {
+				entity.setPassword(newPassword);
+			}
+		}
+		return user;
+	}
+	
+	/**
+	 * Drops the cached credentials of the user. Call it when the password or the roles of the user
+	 * change; inside a transaction the entry is dropped after commit, so a concurrent login cannot
+	 * cache the old values again.
+	 */
+	public void evictCredentials(String username) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			credentials.remove(username);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				credentials.remove(username);
+			}
+		});
+	}
+	
+	/**
+	 * Credentials and roles of a user, cached for {@code credentialsTtlSeconds}. Concurrent misses
+	 * for the same user wait for a single query; unknown users and failed queries are not cached.
+	 */
+	private List<UserDetailsProjection> findCredentials(String username) {
+		if (credentialsTtlSeconds <= 0) {
+			return repository.searchUserAndRolesByEmail(username);
+		}
+		long now = System.currentTimeMillis();
+		CredentialsEntry entry = credentials.compute(username, (key, current) ->
+				current == null || current.expiresAtMillis <= now ? new CredentialsEntry(now + credentialsTtlSeconds * 1000) : current);
+		
+		if (entry.loading.compareAndSet(false, true)) {
+			try {
+				List<UserDetailsProjection> result = List.copyOf(repository.searchUserAndRolesByEmail(username));
+				if (result.isEmpty()) {
+					credentials.remove(username, entry);
+				}
+				entry.result.complete(result);
+				evictIfFull(now);
+				return result;
+			}
+			catch (RuntimeException e) {
+				credentials.remove(username, entry);
+				entry.result.completeExceptionally(e);
+				throw e;
+			}
+		}
+		try {
+			return entry.result.join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * One thread at a time drops the expired entries and then arbitrary finished ones down to 90%
+	 * of the limit; the others skip eviction instead of scanning the map concurrently.
+	 */
+	private void evictIfFull(long now) {
+		if (credentials.size() <= credentialsMaxEntries || !evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			credentials.values().removeIf(entry -> entry.expiresAtMillis <= now);
+			int lowWaterMark = credentialsMaxEntries - credentialsMaxEntries / 10;
+			Iterator<CredentialsEntry> it = credentials.values().iterator();
+			while (credentials.size() > lowWaterMark && it.hasNext()) {
+				if (it.next().result.isDone()) {
+					it.remove();
+				}
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+	
 	protected User authenticated() {
 		try {
 			String username = customUserUtil.getLoggedUsername();
@@ -61,4 +184,15 @@ public class UserService implements UserDetailsService {
 		User entity = authenticated();
 		return new UserDTO(entity);
 	}
+	
+	private static class CredentialsEntry {
+		
+		private final long expiresAtMillis;
+		private final AtomicBoolean loading = new AtomicBoolean();
+		private final CompletableFuture<List<UserDetailsProjection>> result = new CompletableFuture<>();
+		
+		private CredentialsEntry(long expiresAtMillis) {
+			this.expiresAtMillis = expiresAtMillis;
+		}
+	}
 }
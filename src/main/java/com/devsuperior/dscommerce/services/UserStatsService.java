@@ -0,0 +1,110 @@
+package com.devsuperior.dscommerce.services;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscommerce.dto.UserStatsDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+
+/**
+ * Lifetime order statistics per user, kept in memory and served without touching the orders.
+ * <p>
+ * Each user is three primitives: order count, total spent in cents and the epoch millis of the
+ * last order. They are loaded with two aggregate queries at startup and then maintained from
+ * committed {@link OrderStatusChangedEvent}s: creation bumps the count and last order date,
+ * payment adds the order total. Total spent only counts paid orders.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Stats> stats = new ConcurrentHashMap<>();
+
+    public UserStatsDTO findMyStats() {
+        User me = userService.authenticated();
+        return stats.getOrDefault(me.getId(), Stats.EMPTY).toDTO();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        jdbcTemplate.query("SELECT client_id, COUNT(*) AS order_count, MAX(moment) AS last_order "
+                + "FROM tb_order GROUP BY client_id", rs -> {
+                    statsOf(rs.getLong("client_id")).load(rs.getLong("order_count"),
+                            rs.getTimestamp("last_order").toInstant().toEpochMilli());
+                });
+        jdbcTemplate.query("SELECT o.client_id, SUM(i.price * i.quantity) AS spent "
+                + "FROM tb_order o JOIN tb_order_item i ON i.order_id = o.id "
+                + "WHERE o.status IN (?, ?, ?) GROUP BY o.client_id", rs -> {
+                    statsOf(rs.getLong("client_id")).addSpent(toCents(rs.getDouble("spent")));
+                }, OrderStatus.PAID.ordinal(), OrderStatus.SHIPPED.ordinal(), OrderStatus.DELIVERED.ordinal());
+        logger.info("User stats loaded for {} users", stats.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getClientId() == null) {
+            return;
+        }
+        if (event.getStatus() == OrderStatus.WAITING_PAYMENT) {
+            statsOf(event.getClientId()).addOrder(event.getMoment().toEpochMilli());
+        }
+        else if (event.getStatus() == OrderStatus.PAID && event.getTotal() != null) {
+            statsOf(event.getClientId()).addSpent(toCents(event.getTotal()));
+        }
+    }
+
+    private Stats statsOf(Long userId) {
+        return stats.computeIfAbsent(userId, id -> new Stats());
+    }
+
+    private static long toCents(double value) {
+        return Math.round(value * 100);
+    }
+
+    private static class Stats {
+
+        private static final Stats EMPTY = new Stats();
+
+        private long orderCount;
+        private long spentCents;
+        private long lastOrderMillis = Long.MIN_VALUE;
+
+        private synchronized void load(long orderCount, long lastOrderMillis) {
+            this.orderCount += orderCount;
+            this.lastOrderMillis = Math.max(this.lastOrderMillis, lastOrderMillis);
+        }
+
+        private synchronized void addOrder(long momentMillis) {
+            orderCount++;
+            lastOrderMillis = Math.max(lastOrderMillis, momentMillis);
+        }
+
+        private synchronized void addSpent(long cents) {
+            spentCents += cents;
+        }
+
+        private synchronized UserStatsDTO toDTO() {
+            Instant lastOrder = lastOrderMillis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(lastOrderMillis);
+            return new UserStatsDTO(orderCount, spentCents / 100.0, lastOrder);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.devsuperior.dscommerce.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of binary records in memory-mapped segment files.
+ * <p>
+ * Each record is {@code [int length][int crc32c][payload]}. Segments are preallocated, so unused
+ * space reads as zero and a zero length marks the end of a segment. When a record does not fit
+ * in the current segment the log rolls over to a new one. The length is written after the
+ * payload and checksum, so a record is only visible once it is complete.
+ * <p>
+ * Opening the log checks the tail of the last segment: the first record with an impossible length
+ * or a bad checksum is treated as a torn write, and it and everything after it is zeroed before
+ * appends resume. The log is meant to be fed by a single writer thread; any number of
+ * {@link Scanner}s may read it concurrently. A lock file keeps a second log instance, in this or
+ * another process, from opening the same directory.
+ * <p>
+ * Mappings are released explicitly when the log rolls over or is closed, and when a scanner
+ * moves past a segment or is closed, instead of waiting for the garbage collector; otherwise
+ * every segment ever written would stay mapped until its buffer happened to be collected.
+ */
+public class EventLog implements Closeable {
+
+	private static final int HEADER_SIZE = 8;
+	private static final String SUFFIX = ".seg";
+	private static final Unmapper UNMAPPER = Unmapper.create();
+
+	private final Path dir;
+	private final int segmentSize;
+	private final List<Path> segments = new ArrayList<>();
+	private final FileChannel lockChannel;
+	private final FileLock lock;
+
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private long truncatedBytes;
+
+	public EventLog(Path dir, int segmentSize) throws IOException {
+		if (segmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("Segment size must be larger than " + HEADER_SIZE);
+		}
+		this.dir = dir;
+		this.segmentSize = segmentSize;
+		Files.createDirectories(dir);
+		lockChannel = FileChannel.open(dir.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileLock acquired;
+		try {
+			acquired = lockChannel.tryLock();
+		}
+		catch (OverlappingFileLockException e) {
+			acquired = null;
+		}
+		if (acquired == null) {
+			lockChannel.close();
+			throw new IllegalStateException("Event log already in use: " + dir);
+		}
+		lock = acquired;
+		try (Stream<Path> files = Files.list(dir)) {
+			files.filter(x -> x.getFileName().toString().endsWith(SUFFIX)).sorted().forEach(segments::add);
+		}
+		if (segments.isEmpty()) {
+			openSegment(newSegmentPath(0));
+		}
+		else {
+			openSegment(segments.get(segments.size() - 1));
+			recover();
+		}
+	}
+
+	/**
+	 * Appends a record and returns its position in the current segment.
+	 */
+	public synchronized int append(byte[] payload) throws IOException {
+		ensureOpen();
+		if (payload.length == 0 || payload.length > segmentSize - HEADER_SIZE) {
+			throw new IllegalArgumentException("Invalid record size: " + payload.length);
+		}
+		if (buffer.remaining() < HEADER_SIZE + payload.length) {
+			roll();
+		}
+		int position = buffer.position();
+		CRC32C crc = new CRC32C();
+		crc.update(payload);
+		buffer.putInt(position + 4, (int) crc.getValue());
+		buffer.put(position + HEADER_SIZE, payload);
+		buffer.putInt(position, payload.length);
+		buffer.position(position + HEADER_SIZE + payload.length);
+		return position;
+	}
+
+	/**
+	 * Forces the current segment to disk.
+	 */
+	public synchronized void flush() {
+		ensureOpen();
+		buffer.force();
+	}
+
+	public synchronized Scanner scanner() {
+		return new Scanner(new ArrayList<>(segments));
+	}
+
+	public synchronized int segmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Number of bytes discarded from a torn tail when the log was opened.
+	 */
+	public long getTruncatedBytes() {
+		return truncatedBytes;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (buffer == null) {
+			return;
+		}
+		buffer.force();
+		channel.close();
+		UNMAPPER.unmap(buffer);
+		buffer = null;
+		lock.release();
+		lockChannel.close();
+	}
+
+	private void recover() {
+		int position = 0;
+		while (position + HEADER_SIZE <= segmentSize) {
+			int length = buffer.getInt(position);
+			if (length == 0) {
+				break;
+			}
+			if (length < 0 || length > segmentSize - position - HEADER_SIZE
+					|| buffer.getInt(position + 4) != crcOf(buffer, position + HEADER_SIZE, length)) {
+				truncatedBytes = zeroFrom(position);
+				break;
+			}
+			position += HEADER_SIZE + length;
+		}
+		buffer.position(position);
+	}
+
+	private long zeroFrom(int position) {
+		int end = position;
+		for (int i = position; i < segmentSize; i++) {
+			if (buffer.get(i) != 0) {
+				end = i + 1;
+			}
+			buffer.put(i, (byte) 0);
+		}
+		buffer.force();
+		return end - position;
+	}
+
+	private void ensureOpen() {
+		if (buffer == null) {
+			throw new IllegalStateException("Event log is closed: " + dir);
+		}
+	}
+
+	private void roll() throws IOException {
+		buffer.force();
+		channel.close();
+		UNMAPPER.unmap(buffer);
+		openSegment(newSegmentPath(segments.size()));
+	}
+
+	private void openSegment(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		if (!segments.contains(path)) {
+			segments.add(path);
+		}
+	}
+
+	private Path newSegmentPath(int sequence) {
+		return dir.resolve(String.format("%020d%s", sequence, SUFFIX));
+	}
+
+	private static int crcOf(MappedByteBuffer buffer, int offset, int length) {
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.slice(offset, length));
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Sequential reader over the segments that existed when it was created. Within a segment it
+	 * stops at the end of the written data or at the first record that fails its checksum.
+	 */
+	public static class Scanner implements Closeable {
+
+		private final List<Path> segments;
+		private int segmentIndex = -1;
+		private MappedByteBuffer buffer;
+		private int position;
+
+		private Scanner(List<Path> segments) {
+			this.segments = segments;
+		}
+
+		/**
+		 * Returns the next record, or {@code null} when there is nothing more to read.
+		 */
+		public byte[] next() throws IOException {
+			while (true) {
+				if (buffer == null && !nextSegment()) {
+					return null;
+				}
+				if (position + HEADER_SIZE <= buffer.capacity()) {
+					int length = buffer.getInt(position);
+					if (length > 0 && length <= buffer.capacity() - position - HEADER_SIZE
+							&& buffer.getInt(position + 4) == crcOf(buffer, position + HEADER_SIZE, length)) {
+						byte[] payload = new byte[length];
+						buffer.get(position + HEADER_SIZE, payload);
+						position += HEADER_SIZE + length;
+						return payload;
+					}
+				}
+				release();
+			}
+		}
+
+		private boolean nextSegment() throws IOException {
+			if (segmentIndex + 1 >= segments.size()) {
+				return false;
+			}
+			release();
+			segmentIndex++;
+			try (FileChannel channel = FileChannel.open(segments.get(segmentIndex), StandardOpenOption.READ)) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			position = 0;
+			return true;
+		}
+
+		@Override
+		public void close() {
+			release();
+			segmentIndex = segments.size();
+		}
+
+		private void release() {
+			if (buffer != null) {
+				UNMAPPER.unmap(buffer);
+				buffer = null;
+			}
+		}
+	}
+
+	/**
+	 * Releases a mapping right away through {@code sun.misc.Unsafe.invokeCleaner}, which the
+	 * {@code jdk.unsupported} module still exports. Where it is not available the mapping is left
+	 * to the garbage collector. A buffer must not be touched after it has been unmapped.
+	 */
+	private static class Unmapper {
+
+		private final Object unsafe;
+		private final Method invokeCleaner;
+
+		private Unmapper(Object unsafe, Method invokeCleaner) {
+			this.unsafe = unsafe;
+			this.invokeCleaner = invokeCleaner;
+		}
+
+		static Unmapper create() {
+			try {
+				Class<?> type = Class.forName("sun.misc.Unsafe");
+				Field field = type.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				return new Unmapper(field.get(null), type.getMethod("invokeCleaner", ByteBuffer.class));
+			}
+			catch (ReflectiveOperationException | RuntimeException e) {
+				return new Unmapper(null, null);
+			}
+		}
+
+		void unmap(MappedByteBuffer buffer) {
+			if (invokeCleaner == null) {
+				return;
+			}
+			try {
+				invokeCleaner.invoke(unsafe, buffer);
+			}
+			catch (ReflectiveOperationException e) {
+				// leave it to the garbage collector
+			}
+		}
+	}
+}
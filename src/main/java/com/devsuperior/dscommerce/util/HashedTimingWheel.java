@@ -0,0 +1,86 @@
+package com.devsuperior.dscommerce.util;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel of ids and deadlines.
+ * <p>
+ * Time is cut into ticks and each deadline is hashed into the bucket {@code tick % wheelSize}.
+ * Scheduling only appends to a lock-free queue, so callers never contend with the ticking
+ * thread; pending entries are moved into their buckets when the wheel advances. Advancing
+ * visits only the buckets of the elapsed ticks, so the cost does not depend on how many
+ * deadlines are far in the future.
+ */
+public class HashedTimingWheel {
+
+	private final long tickMillis;
+	private final List<List<Timeout>> wheel;
+	private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+	private long currentTick;
+
+	public HashedTimingWheel(long tickMillis, int wheelSize, Instant start) {
+		this.tickMillis = tickMillis;
+		this.wheel = new ArrayList<>(wheelSize);
+		for (int i = 0; i < wheelSize; i++) {
+			wheel.add(new ArrayList<>());
+		}
+		this.currentTick = tickOf(start) - 1;
+	}
+
+	public void schedule(long id, Instant deadline) {
+		pending.add(new Timeout(id, tickOf(deadline)));
+	}
+
+	public synchronized List<Long> advance(Instant now) {
+		long targetTick = tickOf(now);
+		List<Long> expired = new ArrayList<>();
+
+		Timeout timeout;
+		while ((timeout = pending.poll()) != null) {
+			if (timeout.deadlineTick <= targetTick) {
+				expired.add(timeout.id);
+			}
+			else {
+				wheel.get(slotOf(timeout.deadlineTick)).add(timeout);
+			}
+		}
+
+		long ticks = Math.min(targetTick - currentTick, wheel.size());
+		for (long i = 1; i <= ticks; i++) {
+			Iterator<Timeout> it = wheel.get(slotOf(currentTick + i)).iterator();
+			while (it.hasNext()) {
+				timeout = it.next();
+				if (timeout.deadlineTick <= targetTick) {
+					expired.add(timeout.id);
+					it.remove();
+				}
+			}
+		}
+		currentTick = Math.max(currentTick, targetTick);
+		return expired;
+	}
+
+	private long tickOf(Instant instant) {
+		return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+	}
+
+	private int slotOf(long tick) {
+		return (int) Math.floorMod(tick, (long) wheel.size());
+	}
+
+	private static class Timeout {
+
+		private final long id;
+		private final long deadlineTick;
+
+		private Timeout(long id, long deadlineTick) {
+			this.id = id;
+			this.deadlineTick = deadlineTick;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.devsuperior.dscommerce.util;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code int} with linear probing.
+ * <p>
+ * Keys and values live in two parallel primitive arrays, so there is no boxing and no entry
+ * object per mapping; the arrays double when half full. Mappings can only be added or changed,
+ * never removed, which keeps probing simple. Not thread-safe.
+ */
+public class LongIntHashMap {
+
+	public interface EntryConsumer {
+		void accept(long key, int value);
+	}
+
+	private static final long FREE = 0L;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int mask;
+
+	private boolean hasFreeKey;
+	private int freeKeyValue;
+
+	public LongIntHashMap() {
+		this(8);
+	}
+
+	public LongIntHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Adds {@code delta} to the value of {@code key}, starting from zero, and returns the new value.
+	 */
+	public int addTo(long key, int delta) {
+		if (key == FREE) {
+			if (!hasFreeKey) {
+				hasFreeKey = true;
+				size++;
+			}
+			return freeKeyValue += delta;
+		}
+		int slot = slotOf(key);
+		while (keys[slot] != FREE) {
+			if (keys[slot] == key) {
+				return values[slot] += delta;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = delta;
+		if (++size > keys.length / 2) {
+			grow();
+		}
+		return delta;
+	}
+
+	public int get(long key) {
+		if (key == FREE) {
+			return hasFreeKey ? freeKeyValue : 0;
+		}
+		int slot = slotOf(key);
+		while (keys[slot] != FREE) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return 0;
+	}
+
+	public boolean containsKey(long key) {
+		if (key == FREE) {
+			return hasFreeKey;
+		}
+		int slot = slotOf(key);
+		while (keys[slot] != FREE) {
+			if (keys[slot] == key) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void forEach(EntryConsumer consumer) {
+		if (hasFreeKey) {
+			consumer.accept(FREE, freeKeyValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE) {
+				consumer.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	public void addAll(LongIntHashMap other) {
+		other.forEach(this::addTo);
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				int slot = slotOf(oldKeys[i]);
+				while (keys[slot] != FREE) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private int slotOf(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,100 @@
+package com.devsuperior.dscommerce.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable price timeline of one product.
+ * <p>
+ * Entries are kept as parallel {@code long[]} start instants (epoch millis) and {@code double[]}
+ * prices sorted by start, so an as-of lookup is a binary search over a primitive array instead of
+ * a walk over entity objects. Prices change rarely, so {@link #append} copies the arrays and
+ * readers never need a lock.
+ */
+public final class PriceTimeline {
+
+	public static final PriceTimeline EMPTY = new PriceTimeline(new long[0], new double[0]);
+
+	private final long[] validFrom;
+	private final double[] prices;
+
+	private PriceTimeline(long[] validFrom, double[] prices) {
+		this.validFrom = validFrom;
+		this.prices = prices;
+	}
+
+	/**
+	 * Returns a timeline with the entry added. An entry with the same start as an existing one is
+	 * placed after it, so the latest recorded price for an instant wins.
+	 */
+	public PriceTimeline append(long validFromMillis, double price) {
+		int position = indexAt(validFromMillis) + 1;
+		long[] newValidFrom = new long[validFrom.length + 1];
+		double[] newPrices = new double[prices.length + 1];
+		System.arraycopy(validFrom, 0, newValidFrom, 0, position);
+		System.arraycopy(prices, 0, newPrices, 0, position);
+		newValidFrom[position] = validFromMillis;
+		newPrices[position] = price;
+		System.arraycopy(validFrom, position, newValidFrom, position + 1, validFrom.length - position);
+		System.arraycopy(prices, position, newPrices, position + 1, prices.length - position);
+		return new PriceTimeline(newValidFrom, newPrices);
+	}
+
+	/**
+	 * Returns a timeline with the entries of both. An entry of {@code other} with the same start
+	 * and price as one already here is the same history row seen twice and is kept once.
+	 */
+	public PriceTimeline merge(PriceTimeline other) {
+		PriceTimeline result = this;
+		for (int i = 0; i < other.size(); i++) {
+			if (!result.contains(other.validFrom[i], other.prices[i])) {
+				result = result.append(other.validFrom[i], other.prices[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Index of the entry in force at the given instant, or -1 if the instant is before the first
+	 * entry.
+	 */
+	public int indexAt(long millis) {
+		int low = 0;
+		int high = validFrom.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (validFrom[mid] <= millis) {
+				low = mid + 1;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	private boolean contains(long validFromMillis, double price) {
+		for (int i = indexAt(validFromMillis); i >= 0 && validFrom[i] == validFromMillis; i--) {
+			if (prices[i] == price) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public long validFrom(int index) {
+		return validFrom[index];
+	}
+
+	public double price(int index) {
+		return prices[index];
+	}
+
+	public int size() {
+		return validFrom.length;
+	}
+
+	@Override
+	public String toString() {
+		return "PriceTimeline" + Arrays.toString(validFrom) + Arrays.toString(prices);
+	}
+}
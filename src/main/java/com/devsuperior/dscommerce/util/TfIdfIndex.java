@@ -0,0 +1,319 @@
+package com.devsuperior.dscommerce.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * TF-IDF vectors of short documents with cosine top-k search.
+ * <p>
+ * Each document is stored as a sorted {@code int[]} of term ids and a parallel {@code float[]}
+ * of L2-normalized weights, and every term keeps a posting list of the same weights in two
+ * primitive arrays. A query walks only the posting lists of the query document's terms and sums
+ * scores in a table sized by the documents it touches, so its cost depends on how many documents
+ * share a term with it, not on the size of the index.
+ * <p>
+ * {@link #build} computes document frequencies over the whole corpus first. Documents added or
+ * replaced afterwards are weighted with the frequencies known at that moment; their postings
+ * are appended and the previous version is only marked dead, so updates never rewrite existing
+ * lists. Rebuilding periodically restores exact weights and drops dead postings. Reads share a
+ * lock and writes are exclusive.
+ */
+public class TfIdfIndex {
+
+	private static final Set<String> STOPWORDS = Set.of(
+			"a", "o", "e", "de", "da", "do", "das", "dos", "em", "no", "na", "nos", "nas", "um", "uma",
+			"para", "com", "por", "que", "se", "os", "as", "ao", "the", "and", "of", "for", "with", "in", "on", "to");
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<String, Integer> vocabulary = new HashMap<>();
+	private int[] documentFrequency = new int[1024];
+
+	private final Map<Long, Integer> documentsById = new HashMap<>();
+	private long[] ids = new long[1024];
+	private int[][] terms = new int[1024][];
+	private float[][] weights = new float[1024][];
+	private boolean[] alive = new boolean[1024];
+	private int documentCount;
+	private int liveCount;
+
+	private final List<Posting> postings = new ArrayList<>();
+
+	public static TfIdfIndex build(Map<Long, String> documents) {
+		TfIdfIndex index = new TfIdfIndex();
+		Map<Long, Map<Integer, Integer>> frequencies = new HashMap<>(documents.size() * 2);
+		for (Map.Entry<Long, String> entry : documents.entrySet()) {
+			Map<Integer, Integer> tf = index.termFrequencies(entry.getValue());
+			for (Integer term : tf.keySet()) {
+				index.documentFrequency[term]++;
+			}
+			frequencies.put(entry.getKey(), tf);
+		}
+		index.liveCount = documents.size();
+		for (Map.Entry<Long, Map<Integer, Integer>> entry : frequencies.entrySet()) {
+			index.append(entry.getKey(), entry.getValue());
+		}
+		return index;
+	}
+
+	/**
+	 * Adds a document, or replaces the previous version of the same id.
+	 */
+	public void put(long id, String text) {
+		lock.writeLock().lock();
+		try {
+			removeInternal(id);
+			Map<Integer, Integer> tf = termFrequencies(text);
+			for (Integer term : tf.keySet()) {
+				documentFrequency[term]++;
+			}
+			liveCount++;
+			append(id, tf);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(long id) {
+		lock.writeLock().lock();
+		try {
+			removeInternal(id);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public boolean contains(long id) {
+		lock.readLock().lock();
+		try {
+			return documentsById.containsKey(id);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return liveCount;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the ids of the {@code k} documents most similar to document {@code id}, best first.
+	 */
+	public long[] similar(long id, int k) {
+		lock.readLock().lock();
+		try {
+			Integer doc = documentsById.get(id);
+			if (doc == null || k <= 0) {
+				return new long[0];
+			}
+			Scores scores = new Scores();
+
+			int[] docTerms = terms[doc];
+			float[] docWeights = weights[doc];
+			for (int i = 0; i < docTerms.length; i++) {
+				Posting posting = postings.get(docTerms[i]);
+				for (int j = 0; j < posting.size; j++) {
+					int other = posting.docs[j];
+					if (other == doc || !alive[other]) {
+						continue;
+					}
+					scores.add(other, docWeights[i] * posting.weights[j]);
+				}
+			}
+
+			// heap of table slots, worst of the current top-k on top
+			PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> scores.values[a] != scores.values[b]
+					? Float.compare(scores.values[a], scores.values[b])
+					: Long.compare(ids[scores.docs[b]], ids[scores.docs[a]]));
+			for (int slot = 0; slot < scores.docs.length; slot++) {
+				if (scores.docs[slot] < 0) {
+					continue;
+				}
+				heap.add(slot);
+				if (heap.size() > k) {
+					heap.poll();
+				}
+			}
+			long[] result = new long[heap.size()];
+			for (int i = result.length - 1; i >= 0; i--) {
+				result[i] = ids[scores.docs[heap.poll()]];
+			}
+			return result;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+				.replaceAll("\\p{M}", "")
+				.toLowerCase();
+		for (String token : normalized.split("[^\\p{L}\\p{Nd}]+")) {
+			if (token.length() > 1 && !STOPWORDS.contains(token)) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private Map<Integer, Integer> termFrequencies(String text) {
+		Map<Integer, Integer> tf = new HashMap<>();
+		for (String token : tokenize(text)) {
+			Integer term = vocabulary.get(token);
+			if (term == null) {
+				term = vocabulary.size();
+				vocabulary.put(token, term);
+				postings.add(new Posting());
+				if (term == documentFrequency.length) {
+					documentFrequency = Arrays.copyOf(documentFrequency, term * 2);
+				}
+			}
+			tf.merge(term, 1, Integer::sum);
+		}
+		return tf;
+	}
+
+	private void append(long id, Map<Integer, Integer> tf) {
+		int[] docTerms = new int[tf.size()];
+		int n = 0;
+		for (Integer term : tf.keySet()) {
+			docTerms[n++] = term;
+		}
+		Arrays.sort(docTerms);
+
+		float[] docWeights = new float[docTerms.length];
+		double norm = 0.0;
+		for (int i = 0; i < docTerms.length; i++) {
+			double idf = Math.log((1.0 + liveCount) / (1.0 + documentFrequency[docTerms[i]])) + 1.0;
+			double weight = (1.0 + Math.log(tf.get(docTerms[i]))) * idf;
+			docWeights[i] = (float) weight;
+			norm += weight * weight;
+		}
+		norm = Math.sqrt(norm);
+		for (int i = 0; i < docWeights.length; i++) {
+			docWeights[i] = (float) (docWeights[i] / norm);
+		}
+
+		int doc = documentCount++;
+		if (doc == ids.length) {
+			int capacity = doc * 2;
+			ids = Arrays.copyOf(ids, capacity);
+			terms = Arrays.copyOf(terms, capacity);
+			weights = Arrays.copyOf(weights, capacity);
+			alive = Arrays.copyOf(alive, capacity);
+		}
+		ids[doc] = id;
+		terms[doc] = docTerms;
+		weights[doc] = docWeights;
+		alive[doc] = true;
+		documentsById.put(id, doc);
+		for (int i = 0; i < docTerms.length; i++) {
+			postings.get(docTerms[i]).add(doc, docWeights[i]);
+		}
+	}
+
+	private void removeInternal(long id) {
+		Integer doc = documentsById.remove(id);
+		if (doc == null) {
+			return;
+		}
+		alive[doc] = false;
+		for (int term : terms[doc]) {
+			documentFrequency[term]--;
+		}
+		liveCount--;
+	}
+
+	/**
+	 * Open-addressing map from document to accumulated score, sized by the documents a query
+	 * actually touches instead of the whole index. Free slots hold {@code -1}.
+	 */
+	private static class Scores {
+
+		private int[] docs = newSlots(16);
+		private float[] values = new float[16];
+		private int size;
+
+		private void add(int doc, float value) {
+			int slot = slotOf(docs, doc);
+			if (docs[slot] < 0) {
+				if (2 * (size + 1) > docs.length) {
+					grow();
+					slot = slotOf(docs, doc);
+				}
+				docs[slot] = doc;
+				size++;
+			}
+			values[slot] += value;
+		}
+
+		private void grow() {
+			int[] oldDocs = docs;
+			float[] oldValues = values;
+			docs = newSlots(oldDocs.length * 2);
+			values = new float[oldDocs.length * 2];
+			for (int i = 0; i < oldDocs.length; i++) {
+				if (oldDocs[i] >= 0) {
+					int slot = slotOf(docs, oldDocs[i]);
+					docs[slot] = oldDocs[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+
+		private static int slotOf(int[] docs, int doc) {
+			int mask = docs.length - 1;
+			int hash = doc * 0x9E3779B9;
+			int slot = (hash ^ hash >>> 16) & mask;
+			while (docs[slot] >= 0 && docs[slot] != doc) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		private static int[] newSlots(int capacity) {
+			int[] slots = new int[capacity];
+			Arrays.fill(slots, -1);
+			return slots;
+		}
+	}
+
+	private static class Posting {
+
+		private int[] docs = new int[4];
+		private float[] weights = new float[4];
+		private int size;
+
+		private void add(int doc, float weight) {
+			if (size == docs.length) {
+				docs = Arrays.copyOf(docs, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			docs[size] = doc;
+			weights[size] = weight;
+			size++;
+		}
+	}
+}
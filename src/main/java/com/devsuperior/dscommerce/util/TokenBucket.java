@@ -0,0 +1,66 @@
+package com.devsuperior.dscommerce.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket holding its whole state in one {@code long}.
+ * <p>
+ * Instead of a token count and a refill timestamp the bucket stores the instant at which it will
+ * be full again (the generic cell rate algorithm): each token pushes that instant one refill
+ * interval forward, and a request is refused when it would land more than {@code capacity}
+ * intervals past now. Acquiring is a single compare-and-set, so there is no lock and no refill
+ * thread, and a bucket whose instant is in the past is full and indistinguishable from a new one.
+ * <p>
+ * Times are {@link System#nanoTime()} values supplied by the caller.
+ */
+public class TokenBucket {
+
+	private final long capacity;
+	private final long intervalNanos;
+	private final long burstNanos;
+	private final AtomicLong fullAt;
+
+	public TokenBucket(long capacity, Duration period, long nowNanos) {
+		if (capacity <= 0 || period.isNegative() || period.isZero()) {
+			throw new IllegalArgumentException("Capacity and period must be positive");
+		}
+		this.capacity = capacity;
+		this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+		this.burstNanos = intervalNanos * capacity;
+		this.fullAt = new AtomicLong(nowNanos);
+	}
+
+	/**
+	 * Takes one token. Returns the tokens left when it succeeds, otherwise minus the nanoseconds
+	 * until a token is available.
+	 */
+	public long tryAcquire(long nowNanos) {
+		for (;;) {
+			long current = fullAt.get();
+			long next = Math.max(current, nowNanos) + intervalNanos;
+			long debt = next - nowNanos;
+			if (debt > burstNanos) {
+				return -(debt - burstNanos);
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return (burstNanos - debt) / intervalNanos;
+			}
+		}
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Nanoseconds until the bucket is full again, zero when it already is.
+	 */
+	public long nanosUntilFull(long nowNanos) {
+		return Math.max(0, fullAt.get() - nowNanos);
+	}
+
+	public boolean isFull(long nowNanos) {
+		return fullAt.get() - nowNanos <= 0;
+	}
+}
@@ -55,6 +55,32 @@ INSERT INTO tb_product_category (product_id, category_id) VALUES (23, 3);
 INSERT INTO tb_product_category (product_id, category_id) VALUES (24, 3);
 INSERT INTO tb_product_category (product_id, category_id) VALUES (25, 3);
 
+INSERT INTO tb_inventory (product_id, quantity) VALUES (1, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (2, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (3, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (4, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (5, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (6, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (7, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (8, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (9, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (10, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (11, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (12, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (13, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (14, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (15, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (16, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (17, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (18, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (19, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (20, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (21, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (22, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (23, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (24, 100);
+INSERT INTO tb_inventory (product_id, quantity) VALUES (25, 100);
+
 INSERT INTO tb_user (name, email, phone, password, birth_date) VALUES ('Maria Brown', 'maria@gmail.com', '988888888', '$2a$10$N7SkKCa3r17ga.i.dF9iy.BFUBL2n3b6Z1CWSZWi/qy7ABq/E6VpO', '2001-07-25');
 INSERT INTO tb_user (name, email, phone, password, birth_date) VALUES ('Alex Green', 'alex@gmail.com', '977777777', '$2a$10$N7SkKCa3r17ga.i.dF9iy.BFUBL2n3b6Z1CWSZWi/qy7ABq/E6VpO', '1987-12-13');
 
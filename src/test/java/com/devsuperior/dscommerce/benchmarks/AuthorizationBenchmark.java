@@ -0,0 +1,113 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.RequireRole;
+import com.devsuperior.dscommerce.config.authorization.RoleMaskAuthorizationManager;
+import com.devsuperior.dscommerce.config.authorization.RoleMaskJwtAuthenticationConverter;
+
+/**
+ * Per-request authorization cost of the previous setup (authorities converter and
+ * {@code @PreAuthorize} SpEL) against the role mask converter and {@link RequireRole}. The
+ * {@code *Request} benchmarks include decoding the JWT claims, the {@code *Check} ones only the
+ * method authorization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+	private Jwt jwt;
+
+	private JwtAuthenticationConverter authoritiesConverter;
+	private RoleMaskJwtAuthenticationConverter roleMaskConverter;
+
+	private PreAuthorizeAuthorizationManager preAuthorizeManager;
+	private RoleMaskAuthorizationManager roleMaskManager;
+
+	private MethodInvocation preAuthorizeInvocation, requireRoleInvocation;
+	private AbstractAuthenticationToken authoritiesAuthentication, roleMaskAuthentication;
+
+	@Setup
+	public void setUp() throws Exception {
+		jwt = Jwt.withTokenValue("token").header("alg", "RS256").subject("myclientid")
+				.claim("authorities", List.of("ROLE_CLIENT")).claim("username", "maria@gmail.com").claim("user_id", 1L)
+				.issuedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(86400)).build();
+
+		JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+		grantedAuthoritiesConverter.setAuthoritiesClaimName("authorities");
+		grantedAuthoritiesConverter.setAuthorityPrefix("");
+		authoritiesConverter = new JwtAuthenticationConverter();
+		authoritiesConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+		roleMaskConverter = new RoleMaskJwtAuthenticationConverter();
+
+		preAuthorizeManager = new PreAuthorizeAuthorizationManager();
+		roleMaskManager = new RoleMaskAuthorizationManager();
+
+		Endpoints endpoints = new Endpoints();
+		preAuthorizeInvocation = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod("preAuthorize"));
+		requireRoleInvocation = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod("requireRole"));
+
+		authoritiesAuthentication = authoritiesConverter.convert(jwt);
+		roleMaskAuthentication = roleMaskConverter.convert(jwt);
+	}
+
+	@Benchmark
+	public AuthorizationDecision preAuthorizeRequest() {
+		AbstractAuthenticationToken authentication = authoritiesConverter.convert(jwt);
+		return preAuthorizeManager.check(() -> authentication, preAuthorizeInvocation);
+	}
+
+	@Benchmark
+	public AuthorizationDecision requireRoleRequest() {
+		AbstractAuthenticationToken authentication = roleMaskConverter.convert(jwt);
+		return roleMaskManager.check(() -> authentication, requireRoleInvocation);
+	}
+
+	@Benchmark
+	public AuthorizationDecision preAuthorizeCheck() {
+		return preAuthorizeManager.check(() -> authoritiesAuthentication, preAuthorizeInvocation);
+	}
+
+	@Benchmark
+	public AuthorizationDecision requireRoleCheck() {
+		return roleMaskManager.check(() -> roleMaskAuthentication, requireRoleInvocation);
+	}
+
+	public static class Endpoints {
+
+		@PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+		public void preAuthorize() {
+		}
+
+		@RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
+		public void requireRole() {
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//Benchmark: mvn test -Dbenchmark=true -Dtest=AuthorizationBenchmarkTests
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AuthorizationBenchmarkTests {
+
+	@Test
+	public void compareSpelAndRoleMaskAuthorization() throws Exception {
+		new Runner(new OptionsBuilder().include(AuthorizationBenchmark.class.getName()).build()).run();
+	}
+}
@@ -0,0 +1,73 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.devsuperior.dscommerce.config.customgrant.BoundedPasswordVerifier;
+import com.devsuperior.dscommerce.config.customgrant.PasswordEncoderProfiles;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Login cost at each BCrypt strength. {@code hash} is one comparison on an idle core, i.e. the
+ * best login latency; {@code login} is 16 concurrent logins through the password verifier with
+ * {@code verifierThreads} threads (the {@code security.password.verifier.threads} default), so its
+ * throughput is the logins per second that budget of cores sustains and its sampled times
+ * include the queueing a login storm would see.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+	@Param({ "8", "10", "12" })
+	private int strength;
+
+	@Param({ "4" })
+	private int verifierThreads;
+
+	private PasswordEncoder encoder;
+	private String encodedPassword;
+	private BoundedPasswordVerifier verifier;
+
+	@Setup
+	public void setUp() {
+		encoder = PasswordEncoderProfiles.delegating(PasswordEncoderProfiles.BCRYPT, strength);
+		encodedPassword = encoder.encode("123456");
+		verifier = new BoundedPasswordVerifier(encoder, verifierThreads, 1024, TimeUnit.MINUTES.toMillis(1),
+				new SimpleMeterRegistry());
+	}
+
+	@TearDown
+	public void tearDown() {
+		verifier.close();
+	}
+
+	@Benchmark
+	public boolean hash() {
+		return encoder.matches("123456", encodedPassword);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public boolean login() {
+		return verifier.matches("123456", encodedPassword);
+	}
+}
@@ -0,0 +1,16 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//Benchmark: mvn test -Dbenchmark=true -Dtest=PasswordHashBenchmarkTests
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PasswordHashBenchmarkTests {
+
+	@Test
+	public void measureLoginLatencyAndThroughputPerStrength() throws Exception {
+		new Runner(new OptionsBuilder().include(PasswordHashBenchmark.class.getName()).build()).run();
+	}
+}
@@ -0,0 +1,120 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import static org.mockito.ArgumentMatchers.any;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CachingJwtAuthenticationManagerTests {
+
+	private JwtDecoder jwtDecoder;
+	private SimpleMeterRegistry meterRegistry;
+	private CachingJwtAuthenticationManager manager;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		jwtDecoder = Mockito.mock(JwtDecoder.class);
+		meterRegistry = new SimpleMeterRegistry();
+		manager = new CachingJwtAuthenticationManager(jwtDecoder, new RoleMaskJwtAuthenticationConverter(), 2, meterRegistry);
+		
+		Mockito.when(jwtDecoder.decode(any())).thenAnswer(invocation -> jwt(invocation.getArgument(0), Instant.now().plusSeconds(60)));
+		Mockito.when(jwtDecoder.decode("expired")).thenReturn(jwt("expired", Instant.now().minusSeconds(1)));
+		Mockito.when(jwtDecoder.decode("invalid")).thenThrow(new BadJwtException("Invalid signature"));
+	}
+	
+	@Test
+	public void authenticateShouldDecodeTokenOnceWhileValid() {
+		
+		Authentication first = manager.authenticate(new BearerTokenAuthenticationToken("token"));
+		Authentication second = manager.authenticate(new BearerTokenAuthenticationToken("token"));
+		
+		Assertions.assertSame(((RoleMaskAuthenticationToken) first).getToken(), ((RoleMaskAuthenticationToken) second).getToken());
+		Assertions.assertEquals(first.getAuthorities(), second.getAuthorities());
+		Assertions.assertTrue(second.isAuthenticated());
+		Mockito.verify(jwtDecoder, Mockito.times(1)).decode("token");
+		Assertions.assertEquals(1.0, meterRegistry.get("jwt.cache.hits").counter().count());
+		Assertions.assertEquals(1L, meterRegistry.get("jwt.verification").timer().count());
+	}
+	
+	@Test
+	public void authenticateShouldReturnNewAuthenticationWithRequestDetailsOnCacheHit() {
+		
+		BearerTokenAuthenticationToken firstRequest = new BearerTokenAuthenticationToken("token");
+		firstRequest.setDetails("10.0.0.1");
+		BearerTokenAuthenticationToken secondRequest = new BearerTokenAuthenticationToken("token");
+		secondRequest.setDetails("10.0.0.2");
+		
+		Authentication first = manager.authenticate(firstRequest);
+		Authentication second = manager.authenticate(secondRequest);
+		
+		Assertions.assertNotSame(first, second);
+		Assertions.assertInstanceOf(RoleMaskAuthenticationToken.class, second);
+		Assertions.assertEquals(1L, ((RoleMaskAuthenticationToken) second).getUserId());
+		Assertions.assertEquals("10.0.0.1", first.getDetails());
+		Assertions.assertEquals("10.0.0.2", second.getDetails());
+		Mockito.verify(jwtDecoder, Mockito.times(1)).decode("token");
+	}
+	
+	@Test
+	public void authenticateShouldNotCacheExpiredTokens() {
+		
+		manager.authenticate(new BearerTokenAuthenticationToken("expired"));
+		manager.authenticate(new BearerTokenAuthenticationToken("expired"));
+		
+		Mockito.verify(jwtDecoder, Mockito.times(2)).decode("expired");
+		Assertions.assertEquals(0, manager.size());
+	}
+	
+	@Test
+	public void authenticateShouldNotCacheFailures() {
+		
+		for (int i = 0; i < 2; i++) {
+			Assertions.assertThrows(InvalidBearerTokenException.class, () -> {
+				manager.authenticate(new BearerTokenAuthenticationToken("invalid"));
+			});
+		}
+		
+		Mockito.verify(jwtDecoder, Mockito.times(2)).decode("invalid");
+		Assertions.assertEquals(0, manager.size());
+	}
+	
+	@Test
+	public void authenticateShouldKeepCacheBounded() {
+		
+		for (int i = 0; i < 10; i++) {
+			manager.authenticate(new BearerTokenAuthenticationToken("token" + i));
+		}
+		
+		Assertions.assertTrue(manager.size() <= 2);
+	}
+	
+	@Test
+	public void authenticateShouldTrimCacheBelowLimitWhenFull() {
+		manager = new CachingJwtAuthenticationManager(jwtDecoder, new RoleMaskJwtAuthenticationConverter(), 100, meterRegistry);
+		
+		for (int i = 0; i <= 100; i++) {
+			manager.authenticate(new BearerTokenAuthenticationToken("token" + i));
+		}
+		
+		Assertions.assertEquals(90, manager.size());
+	}
+	
+	private static Jwt jwt(String token, Instant expiresAt) {
+		return Jwt.withTokenValue(token).header("alg", "RS256").subject("myclientid")
+				.claim("authorities", List.of("ROLE_CLIENT")).claim("user_id", 1L)
+				.issuedAt(expiresAt.minusSeconds(3600)).expiresAt(expiresAt).build();
+	}
+}
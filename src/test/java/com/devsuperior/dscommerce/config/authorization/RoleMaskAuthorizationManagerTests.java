@@ -0,0 +1,85 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+public class RoleMaskAuthorizationManagerTests {
+
+	private RoleMaskAuthorizationManager manager;
+	private RoleMaskJwtAuthenticationConverter converter;
+	private MethodInvocation adminOnly, adminOrClient;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		manager = new RoleMaskAuthorizationManager();
+		converter = new RoleMaskJwtAuthenticationConverter();
+		Endpoints endpoints = new Endpoints();
+		adminOnly = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod("adminOnly"));
+		adminOrClient = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod("adminOrClient"));
+	}
+	
+	@Test
+	public void converterShouldDecodeRoleMaskAndUserIdFromClaims() {
+		
+		RoleMaskAuthenticationToken result = (RoleMaskAuthenticationToken) converter.convert(jwt(List.of("ROLE_CLIENT", "ROLE_ADMIN")));
+		
+		Assertions.assertEquals(AccessRole.maskOf(AccessRole.ADMIN, AccessRole.CLIENT), result.getRoleMask());
+		Assertions.assertEquals(7L, result.getUserId());
+		Assertions.assertEquals(2, result.getAuthorities().size());
+		Assertions.assertEquals("myclientid", result.getName());
+	}
+	
+	@Test
+	public void checkShouldGrantWhenTokenHasAnyRequiredRole() {
+		Authentication client = converter.convert(jwt(List.of("ROLE_CLIENT")));
+		
+		Assertions.assertTrue(manager.check(() -> client, adminOrClient).isGranted());
+		Assertions.assertFalse(manager.check(() -> client, adminOnly).isGranted());
+	}
+	
+	@Test
+	public void checkShouldDenyTokenWithoutKnownRoles() {
+		Authentication none = converter.convert(jwt(List.of("ROLE_OPERATOR")));
+		
+		Assertions.assertFalse(manager.check(() -> none, adminOrClient).isGranted());
+	}
+	
+	@Test
+	public void checkShouldUseAuthoritiesOfOtherAuthentications() {
+		Authentication admin = UsernamePasswordAuthenticationToken.authenticated("alex@gmail.com", null,
+				AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+		Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+				AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+		
+		Assertions.assertTrue(manager.check(() -> admin, adminOnly).isGranted());
+		Assertions.assertFalse(manager.check(() -> anonymous, adminOrClient).isGranted());
+	}
+	
+	private static Jwt jwt(List<String> authorities) {
+		return Jwt.withTokenValue("token").header("alg", "RS256").subject("myclientid")
+				.claim("authorities", authorities).claim("username", "maria@gmail.com").claim("user_id", 7L)
+				.issuedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(60)).build();
+	}
+	
+	public static class Endpoints {
+		
+		@RequireRole(AccessRole.ADMIN)
+		public void adminOnly() {
+		}
+		
+		@RequireRole({ AccessRole.ADMIN, AccessRole.CLIENT })
+		public void adminOrClient() {
+		}
+	}
+}
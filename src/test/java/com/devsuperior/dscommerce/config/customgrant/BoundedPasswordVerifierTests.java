@@ -0,0 +1,96 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BoundedPasswordVerifierTests {
+
+	private PasswordEncoder passwordEncoder;
+	private SimpleMeterRegistry meterRegistry;
+	private BoundedPasswordVerifier verifier;
+	private CountDownLatch release;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		passwordEncoder = Mockito.mock(PasswordEncoder.class);
+		meterRegistry = new SimpleMeterRegistry();
+		release = new CountDownLatch(1);
+		
+		Mockito.when(passwordEncoder.matches("123456", "hash")).thenReturn(true);
+		Mockito.when(passwordEncoder.matches("slow", "hash")).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+		
+		verifier = new BoundedPasswordVerifier(passwordEncoder, 1, 1, 200, meterRegistry);
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		release.countDown();
+		verifier.close();
+	}
+	
+	@Test
+	public void matchesShouldReturnEncoderResultAndRecordTimes() {
+		
+		Assertions.assertTrue(verifier.matches("123456", "hash"));
+		Assertions.assertFalse(verifier.matches("wrong", "hash"));
+		Assertions.assertEquals(2L, meterRegistry.get("auth.password.hash").timer().count());
+		Assertions.assertEquals(2L, meterRegistry.get("auth.password.queue.wait").timer().count());
+	}
+	
+	@Test
+	public void verifyAndUpgradeShouldHashAgainOnlyWhenPasswordMatchesAndEncoderAsksForUpgrade() {
+		Mockito.when(passwordEncoder.upgradeEncoding("hash")).thenReturn(true);
+		Mockito.when(passwordEncoder.encode("123456")).thenReturn("{bcrypt}newhash");
+		
+		BoundedPasswordVerifier.Verification match = verifier.verifyAndUpgrade("123456", "hash");
+		BoundedPasswordVerifier.Verification noMatch = verifier.verifyAndUpgrade("wrong", "hash");
+		
+		Assertions.assertTrue(match.isMatch());
+		Assertions.assertEquals("{bcrypt}newhash", match.getUpgradedPassword());
+		Assertions.assertFalse(noMatch.isMatch());
+		Assertions.assertNull(noMatch.getUpgradedPassword());
+		Mockito.verify(passwordEncoder, Mockito.times(1)).encode(Mockito.any());
+	}
+	
+	@Test
+	public void matchesShouldRejectAtOnceWhenQueueIsFull() throws Exception {
+		CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> verifier.matches("slow", "hash"));
+		Thread.sleep(50);
+		CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> verifier.matches("slow", "hash"));
+		Thread.sleep(50);
+		
+		long start = System.nanoTime();
+		OAuth2AuthenticationException e = Assertions.assertThrows(OAuth2AuthenticationException.class, () -> {
+			verifier.matches("123456", "hash");
+		});
+		
+		Assertions.assertEquals(BoundedPasswordVerifier.OVERLOADED, e.getError().getErrorCode());
+		Assertions.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+		Assertions.assertEquals(1.0, meterRegistry.get("auth.password.rejected").tag("reason", "queue_full").counter().count());
+		release.countDown();
+		running.exceptionally(x -> false).join();
+		queued.exceptionally(x -> false).join();
+	}
+	
+	@Test
+	public void matchesShouldRejectWhenWaitExceedsMaximum() {
+		
+		OAuth2AuthenticationException e = Assertions.assertThrows(OAuth2AuthenticationException.class, () -> {
+			verifier.matches("slow", "hash");
+		});
+		
+		Assertions.assertEquals(BoundedPasswordVerifier.OVERLOADED, e.getError().getErrorCode());
+		Assertions.assertEquals(1.0, meterRegistry.get("auth.password.rejected").tag("reason", "timeout").counter().count());
+	}
+}
@@ -0,0 +1,65 @@
+package com.devsuperior.dscommerce.config.customgrant;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class PasswordEncoderProfilesTests {
+
+	// hash de "123456" com custo 10, como no import.sql
+	private static final String LEGACY_HASH = "$2a$10$N7SkKCa3r17ga.i.dF9iy.BFUBL2n3b6Z1CWSZWi/qy7ABq/E6VpO";
+
+	@Test
+	public void delegatingShouldMatchLegacyHashesAndAskForUpgrade() {
+
+		PasswordEncoder encoder = PasswordEncoderProfiles.delegating(PasswordEncoderProfiles.BCRYPT, 10);
+
+		Assertions.assertTrue(encoder.matches("123456", LEGACY_HASH));
+		Assertions.assertFalse(encoder.matches("654321", LEGACY_HASH));
+		Assertions.assertTrue(encoder.upgradeEncoding(LEGACY_HASH));
+	}
+
+	@Test
+	public void delegatingShouldNotAskForUpgradeWhenCostIsCurrent() {
+
+		PasswordEncoder encoder = PasswordEncoderProfiles.delegating(PasswordEncoderProfiles.BCRYPT, 4);
+		String encoded = encoder.encode("123456");
+
+		Assertions.assertTrue(encoded.startsWith("{bcrypt}$2a$04$"));
+		Assertions.assertTrue(encoder.matches("123456", encoded));
+		Assertions.assertFalse(encoder.upgradeEncoding(encoded));
+	}
+
+	@Test
+	public void delegatingShouldAskForUpgradeWhenCostIsLowerOrHigher() {
+
+		String cost4 = PasswordEncoderProfiles.delegating(PasswordEncoderProfiles.BCRYPT, 4).encode("123456");
+		String cost6 = PasswordEncoderProfiles.delegating(PasswordEncoderProfiles.BCRYPT, 6).encode("123456");
+		PasswordEncoder encoder = PasswordEncoderProfiles.delegating(PasswordEncoderProfiles.BCRYPT, 5);
+
+		Assertions.assertTrue(encoder.upgradeEncoding(cost4));
+		Assertions.assertTrue(encoder.upgradeEncoding(cost6));
+		Assertions.assertTrue(encoder.matches("123456", cost4));
+		Assertions.assertTrue(encoder.matches("123456", cost6));
+	}
+
+	@Test
+	public void delegatingShouldUpgradeBcryptHashesWhenTargetIsPbkdf2() {
+
+		PasswordEncoder encoder = PasswordEncoderProfiles.delegating(PasswordEncoderProfiles.PBKDF2, 10);
+		String encoded = encoder.encode("123456");
+
+		Assertions.assertTrue(encoded.startsWith("{" + PasswordEncoderProfiles.PBKDF2 + "}"));
+		Assertions.assertTrue(encoder.matches("123456", encoded));
+		Assertions.assertFalse(encoder.upgradeEncoding(encoded));
+		Assertions.assertTrue(encoder.upgradeEncoding(LEGACY_HASH));
+	}
+
+	@Test
+	public void delegatingShouldThrowIllegalArgumentExceptionWhenIdIsUnknown() {
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> {
+			PasswordEncoderProfiles.delegating("md5", 10);
+		});
+	}
+}
@@ -0,0 +1,107 @@
+package com.devsuperior.dscommerce.config.datasource;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTests {
+
+	private AtomicLong clock;
+	private JdbcTemplate primary, replica, routed;
+	private TransactionTemplate readWrite, readOnly;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// duas instâncias H2 em memória, cada uma identificada pela linha de tb_origin
+		DriverManagerDataSource primaryDataSource = h2("primary");
+		DriverManagerDataSource replicaDataSource = h2("replica");
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(replicaDataSource);
+
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, 2000);
+		clock = new AtomicLong();
+		routing.setNanoClock(clock::get);
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+		routed = new JdbcTemplate(dataSource);
+
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		SecurityContextHolder.clearContext();
+		primary.execute("SHUTDOWN");
+		replica.execute("SHUTDOWN");
+	}
+
+	@Test
+	public void readOnlyTransactionsShouldUseReplicaAndOthersPrimary() {
+
+		Assertions.assertEquals("replica", readOnly.execute(status -> origin()));
+		Assertions.assertEquals("primary", readWrite.execute(status -> origin()));
+		Assertions.assertEquals("primary", origin());
+	}
+
+	@Test
+	public void readOnlyTransactionsShouldUsePrimaryWithinWindowAfterOwnWrite() {
+		authenticate("maria@gmail.com");
+		readWrite.executeWithoutResult(status -> routed.update("INSERT INTO tb_origin (name) VALUES ('write')"));
+
+		Assertions.assertEquals("primary", readOnly.execute(status -> origin()));
+		Integer count = readOnly.execute(status -> routed.queryForObject("SELECT COUNT(*) FROM tb_origin", Integer.class));
+		Assertions.assertEquals(2, count);
+
+		authenticate("alex@gmail.com");
+		Assertions.assertEquals("replica", readOnly.execute(status -> origin()));
+
+		authenticate("maria@gmail.com");
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2000));
+		Assertions.assertEquals("replica", readOnly.execute(status -> origin()));
+	}
+
+	@Test
+	public void readOnlyTransactionsShouldUseReplicaAfterRolledBackWrite() {
+		authenticate("maria@gmail.com");
+		readWrite.executeWithoutResult(status -> {
+			routed.update("INSERT INTO tb_origin (name) VALUES ('write')");
+			status.setRollbackOnly();
+		});
+
+		Assertions.assertEquals("replica", readOnly.execute(status -> origin()));
+		Assertions.assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM tb_origin", Integer.class));
+	}
+
+	private String origin() {
+		return routed.queryForObject("SELECT name FROM tb_origin ORDER BY id LIMIT 1", String.class);
+	}
+
+	private static void authenticate(String username) {
+		SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(username,
+				null, AuthorityUtils.createAuthorityList("ROLE_CLIENT")));
+	}
+
+	private static DriverManagerDataSource h2(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE tb_origin (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20))");
+		jdbcTemplate.update("INSERT INTO tb_origin (name) VALUES (?)", name);
+		return dataSource;
+	}
+}
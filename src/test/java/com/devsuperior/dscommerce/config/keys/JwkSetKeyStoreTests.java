@@ -0,0 +1,107 @@
+package com.devsuperior.dscommerce.config.keys;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+
+public class JwkSetKeyStoreTests {
+
+	@TempDir
+	Path dir;
+	
+	private Path file;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		file = dir.resolve("jwks.json");
+	}
+	
+	@Test
+	public void rotateShouldSignWithNewKeyAndKeepRetainedPreviousKeys() throws Exception {
+		RSAKey first = JwkSetKeyStore.generate();
+		RSAKey second = JwkSetKeyStore.generate();
+		RSAKey third = JwkSetKeyStore.generate();
+		
+		JWKSet set = JwkSetKeyStore.rotate(new JWKSet(), first, 1);
+		set = JwkSetKeyStore.rotate(set, second, 1);
+		set = JwkSetKeyStore.rotate(set, third, 1);
+		
+		Assertions.assertEquals(List.of(third.getKeyID(), second.getKeyID()),
+				set.getKeys().stream().map(JWK::getKeyID).toList());
+	}
+	
+	@Test
+	public void loadShouldSignWithFirstKeyAndPublishAllKeys() throws Exception {
+		RSAKey previous = JwkSetKeyStore.generate();
+		RSAKey current = JwkSetKeyStore.generate();
+		JwkSetKeyStore.write(file, JwkSetKeyStore.rotate(new JWKSet(previous), current, 2));
+		
+		JwkSetKeyStore store = JwkSetKeyStore.load(file);
+		List<JWK> published = store.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+		
+		Assertions.assertEquals(current.getKeyID(), store.getSigningKeyId());
+		Assertions.assertEquals(2, published.size());
+		Assertions.assertTrue(published.get(0).isPrivate());
+	}
+	
+	@Test
+	public void getShouldReloadFileWhenKeyIdIsUnknown() throws Exception {
+		JwkSetKeyStore.write(file, new JWKSet(JwkSetKeyStore.generate()));
+		JwkSetKeyStore store = JwkSetKeyStore.load(file);
+		
+		RSAKey rotated = JwkSetKeyStore.generate();
+		JwkSetKeyStore.write(file, JwkSetKeyStore.rotate(JwkSetKeyStore.read(file).getSet(), rotated, 2));
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+		List<JWK> result = store.get(new JWKSelector(new JWKMatcher.Builder().keyID(rotated.getKeyID()).build()), null);
+		
+		Assertions.assertEquals(1, result.size());
+		Assertions.assertEquals(rotated.getKeyID(), store.getSigningKeyId());
+	}
+	
+	@Test
+	public void reloadShouldKeepCurrentKeysWhenFileIsInvalid() throws Exception {
+		JwkSetKeyStore.write(file, new JWKSet(JwkSetKeyStore.generate()));
+		JwkSetKeyStore store = JwkSetKeyStore.load(file);
+		String signingKeyId = store.getSigningKeyId();
+		
+		Files.writeString(file, "{\"keys\": []}");
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+		store.reload();
+		
+		Assertions.assertEquals(signingKeyId, store.getSigningKeyId());
+	}
+	
+	@Test
+	public void loadOrCreateShouldCreateFileOnceAndReuseItsKey() throws Exception {
+		file = dir.resolve("keys").resolve("jwks.json");
+		
+		JwkSetKeyStore first = JwkSetKeyStore.loadOrCreate(file);
+		JwkSetKeyStore second = JwkSetKeyStore.loadOrCreate(file);
+		
+		Assertions.assertTrue(Files.exists(file));
+		Assertions.assertEquals(first.getSigningKeyId(), second.getSigningKeyId());
+	}
+	
+	@Test
+	public void createShouldNotReplaceExistingFile() throws Exception {
+		RSAKey existing = JwkSetKeyStore.generate();
+		JwkSetKeyStore.write(file, new JWKSet(existing));
+		
+		Assertions.assertFalse(JwkSetKeyStore.create(file, new JWKSet(JwkSetKeyStore.generate())));
+		Assertions.assertEquals(existing.getKeyID(), JwkSetKeyStore.load(file).getSigningKeyId());
+		Assertions.assertEquals(1, Files.list(dir).count());
+	}
+}
@@ -0,0 +1,143 @@
+package com.devsuperior.dscommerce.config.ratelimit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitFilterTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private RateLimiter rateLimiter;
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		meterRegistry = new SimpleMeterRegistry();
+		rateLimiter = new RateLimiter(100, meterRegistry);
+
+		Map<RateLimitKey, RateLimitRule> rules = new EnumMap<>(RateLimitKey.class);
+		rules.put(RateLimitKey.CLIENT, RateLimitRule.parse("100/60"));
+		rules.put(RateLimitKey.USER, RateLimitRule.parse("2/60"));
+		rules.put(RateLimitKey.IP, RateLimitRule.parse("3/60"));
+		filter = new RateLimitFilter("token", HttpMethod.POST, "/oauth2/token", rules, rateLimiter,
+				new ObjectMapper().findAndRegisterModules(), meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void doFilterShouldSetHeadersOfMostRestrictiveBucketWhenAllowed() throws Exception {
+
+		MockHttpServletResponse response = doFilter(tokenRequest("maria@gmail.com", "10.0.0.1"));
+
+		Assertions.assertEquals(200, response.getStatus());
+		Assertions.assertEquals("2", response.getHeader(RateLimitFilter.LIMIT_HEADER));
+		Assertions.assertEquals("1", response.getHeader(RateLimitFilter.REMAINING_HEADER));
+		Assertions.assertEquals("30", response.getHeader(RateLimitFilter.RESET_HEADER));
+	}
+
+	@Test
+	public void doFilterShouldReturnTooManyRequestsWhenUserBucketIsEmpty() throws Exception {
+
+		doFilter(tokenRequest("maria@gmail.com", "10.0.0.1"));
+		doFilter(tokenRequest("MARIA@gmail.com", "10.0.0.2"));
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(tokenRequest("maria@gmail.com", "10.0.0.3"), response, chain);
+
+		Assertions.assertEquals(429, response.getStatus());
+		Assertions.assertNull(chain.getRequest());
+		Assertions.assertEquals("30", response.getHeader(HttpHeaders.RETRY_AFTER));
+		Assertions.assertEquals("0", response.getHeader(RateLimitFilter.REMAINING_HEADER));
+		Assertions.assertTrue(response.getContentAsString(StandardCharsets.UTF_8).contains("\"status\":429"));
+		Assertions.assertEquals(1.0, meterRegistry.get("rate-limit.rejected").tag("key", "user").counter().count());
+	}
+
+	@Test
+	public void doFilterShouldLimitByIpAcrossUsers() throws Exception {
+
+		doFilter(tokenRequest("maria@gmail.com", "10.0.0.1"));
+		doFilter(tokenRequest("alex@gmail.com", "10.0.0.1"));
+		doFilter(tokenRequest("ana@gmail.com", "10.0.0.1"));
+		MockHttpServletResponse response = doFilter(tokenRequest("bob@gmail.com", "10.0.0.1"));
+
+		Assertions.assertEquals(429, response.getStatus());
+		Assertions.assertEquals(200, doFilter(tokenRequest("bob@gmail.com", "10.0.0.2")).getStatus());
+	}
+
+	@Test
+	public void resolveShouldUseTokenClaimsWhenAuthenticated() throws Exception {
+
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").claim("username", "alex@gmail.com")
+				.audience(List.of("myclientid")).build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+		MockHttpServletRequest request = tokenRequest("maria@gmail.com", "10.0.0.1");
+
+		Assertions.assertEquals("alex@gmail.com", RateLimitKey.USER.resolve(request));
+		Assertions.assertEquals("myclientid", RateLimitKey.CLIENT.resolve(request));
+	}
+
+	@Test
+	public void doFilterShouldIgnoreOtherRoutes() throws Exception {
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+
+		for (int i = 0; i < 5; i++) {
+			MockHttpServletResponse response = doFilter(request);
+			Assertions.assertEquals(200, response.getStatus());
+			Assertions.assertNull(response.getHeader(RateLimitFilter.LIMIT_HEADER));
+		}
+		Assertions.assertEquals(0, rateLimiter.size());
+	}
+
+	@Test
+	public void evictIdleShouldDropOnlyFullBuckets() throws Exception {
+
+		RateLimitRule rule = RateLimitRule.parse("2/1");
+		rateLimiter.tryAcquire("a", rule, 0);
+		rateLimiter.tryAcquire("b", rule, 2_000_000_000L);
+
+		Assertions.assertEquals(1, rateLimiter.evictIdle(2_000_000_000L));
+		Assertions.assertEquals(1, rateLimiter.size());
+	}
+
+	private MockHttpServletResponse doFilter(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockHttpServletRequest tokenRequest(String username, String ip) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+		request.setServletPath("/oauth2/token");
+		request.setRemoteAddr(ip);
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Basic "
+				+ Base64.getEncoder().encodeToString("myclientid:myclientsecret".getBytes(StandardCharsets.UTF_8)));
+		request.addParameter("grant_type", "password");
+		request.addParameter("username", username);
+		request.addParameter("password", "123456");
+		return request;
+	}
+}
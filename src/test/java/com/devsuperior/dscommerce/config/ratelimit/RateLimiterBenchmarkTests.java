@@ -0,0 +1,131 @@
+package com.devsuperior.dscommerce.config.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//Benchmark: mvn test -Dbenchmark=true -Dtest=RateLimiterBenchmarkTests
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RateLimiterBenchmarkTests {
+
+	private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+	private static final int OPERATIONS = 2_000_000;
+
+	@Test
+	public void measureOverheadPerRequest() throws Exception {
+
+		RateLimitRule unlimited = new RateLimitRule(Long.MAX_VALUE / 4, Duration.ofSeconds(1));
+
+		String[] keys = new String[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			keys[i] = "orders:USER:user" + i;
+		}
+
+		for (int round = 0; round < 3; round++) {
+			RateLimiter distinct = new RateLimiter(1_000_000, new SimpleMeterRegistry());
+			double distinctNanos = run(THREADS, OPERATIONS, thread -> distinct.tryAcquire(keys[thread], unlimited));
+
+			RateLimiter shared = new RateLimiter(1_000_000, new SimpleMeterRegistry());
+			double sharedNanos = run(THREADS, OPERATIONS, thread -> shared.tryAcquire("token:CLIENT:myclientid", unlimited));
+
+			System.out.printf("%d threads: %.0f ns/request on distinct keys, %.0f ns/request on one key%n", THREADS,
+					distinctNanos, sharedNanos);
+		}
+	}
+
+	@Test
+	public void measureFairnessAndAccuracyUnderContention() throws Exception {
+
+		RateLimiter rateLimiter = new RateLimiter(1000, new SimpleMeterRegistry());
+		RateLimitRule rule = RateLimitRule.parse("1000/1");
+		long[] granted = new long[THREADS];
+		AtomicBoolean running = new AtomicBoolean(true);
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			int index = i;
+			threads[i] = new Thread(() -> {
+				await(start);
+				long count = 0;
+				while (running.get()) {
+					if (rateLimiter.tryAcquire("token:IP:10.0.0.1", rule).isAllowed()) {
+						count++;
+					}
+				}
+				granted[index] = count;
+			});
+			threads[i].start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		Thread.sleep(5000);
+		running.set(false);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		double seconds = (System.nanoTime() - begin) / 1e9;
+
+		long total = 0;
+		double squares = 0;
+		long min = Long.MAX_VALUE;
+		long max = 0;
+		for (long count : granted) {
+			total += count;
+			squares += (double) count * count;
+			min = Math.min(min, count);
+			max = Math.max(max, count);
+		}
+		double jain = (double) total * total / (THREADS * squares);
+		long expected = 1000 + Math.round(1000 * seconds);
+
+		System.out.printf("%d threads, %.1f s: %d granted (bound %d), per thread min %d max %d, Jain index %.3f%n",
+				THREADS, seconds, total, expected, min, max, jain);
+		Assertions.assertTrue(total <= expected + 1);
+		Assertions.assertTrue(total >= expected * 95 / 100);
+	}
+
+	private static double run(int threads, int operations, ThreadTask task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		LongAdder done = new LongAdder();
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			int index = i;
+			workers[i] = new Thread(() -> {
+				await(start);
+				for (int j = 0; j < operations / threads; j++) {
+					task.run(index);
+				}
+				done.add(operations / threads);
+			});
+			workers[i].start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		// tempo de parede por requisição, como vê um servidor com todos os núcleos ocupados
+		return (System.nanoTime() - begin) * (double) threads / done.sum();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private interface ThreadTask {
+		void run(int thread);
+	}
+}
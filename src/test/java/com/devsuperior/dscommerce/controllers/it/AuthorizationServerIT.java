@@ -0,0 +1,143 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import com.devsuperior.dscommerce.services.AuthorizationStoreService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class AuthorizationServerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorizationStoreService authorizationStoreService;
+
+    @Value("${security.client-id}")
+    private String clientId;
+
+    @Value("${security.client-secret}")
+    private String clientSecret;
+
+    private String clientUserName, clientPassword;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clientUserName = "maria@gmail.com";
+        clientPassword = "123456";
+    }
+
+    @Test
+    public void passwordGrantShouldReturnAccessAndRefreshTokens() throws Exception {
+
+        Map<String, Object> tokens = passwordGrant();
+
+        Assertions.assertNotNull(tokens.get("access_token"));
+        Assertions.assertNotNull(tokens.get("refresh_token"));
+    }
+
+    @Test
+    public void refreshTokenGrantShouldReturnNewTokensWithUserClaims() throws Exception {
+        String refreshToken = passwordGrant().get("refresh_token").toString();
+
+        Map<String, Object> tokens = parse(refreshGrant(refreshToken).andExpect(status().isOk()));
+
+        Assertions.assertNotEquals(refreshToken, tokens.get("refresh_token"));
+        mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + tokens.get("access_token")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(clientUserName));
+    }
+
+    @Test
+    public void refreshTokenGrantShouldReturnBadRequestWhenRefreshTokenWasRotated() throws Exception {
+        String refreshToken = passwordGrant().get("refresh_token").toString();
+        refreshGrant(refreshToken).andExpect(status().isOk());
+
+        refreshGrant(refreshToken)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_grant"));
+    }
+
+    @Test
+    public void refreshTokenGrantShouldReturnBadRequestWhenRefreshTokenWasRevoked() throws Exception {
+        String refreshToken = passwordGrant().get("refresh_token").toString();
+
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("token", refreshToken);
+        params.add("token_type_hint", "refresh_token");
+        mockMvc.perform(post("/oauth2/revoke")
+                        .params(params)
+                        .with(httpBasic(clientId, clientSecret)))
+                .andExpect(status().isOk());
+
+        refreshGrant(refreshToken)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_grant"));
+    }
+
+    @Test
+    public void refreshTokenGrantShouldReturnBadRequestWhenUserAuthorizationsWereRevoked() throws Exception {
+        String refreshToken = passwordGrant().get("refresh_token").toString();
+
+        Assertions.assertTrue(authorizationStoreService.revokeAll(clientUserName) > 0);
+
+        refreshGrant(refreshToken)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_grant"));
+    }
+
+    private Map<String, Object> passwordGrant() throws Exception {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("grant_type", "password");
+        params.add("username", clientUserName);
+        params.add("password", clientPassword);
+
+        ResultActions result = mockMvc
+                .perform(post("/oauth2/token")
+                        .params(params)
+                        .with(httpBasic(clientId, clientSecret))
+                        .accept("application/json;charset=UTF-8"))
+                .andExpect(status().isOk());
+        return parse(result);
+    }
+
+    private ResultActions refreshGrant(String refreshToken) throws Exception {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("grant_type", "refresh_token");
+        params.add("refresh_token", refreshToken);
+
+        return mockMvc
+                .perform(post("/oauth2/token")
+                        .params(params)
+                        .with(httpBasic(clientId, clientSecret))
+                        .accept("application/json;charset=UTF-8"));
+    }
+
+    private static Map<String, Object> parse(ResultActions result) throws Exception {
+        String resultString = result.andReturn().getResponse().getContentAsString();
+        return new JacksonJsonParser().parseMap(resultString);
+    }
+}
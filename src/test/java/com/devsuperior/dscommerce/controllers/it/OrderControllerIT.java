@@ -20,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -171,5 +172,24 @@ public class OrderControllerIT {
         result.andExpect(status().isUnauthorized());
     }
 
+    // Pagamento de pedido
 
+    @Test
+    public void payShouldReturnConflictWhenOrderIsAlreadyPaid409() throws Exception {
+        // pedido 1 já está pago
+        ResultActions result = mockMvc
+                .perform(post("/orders/{id}/payment", existingOrderId)
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isConflict());
+    }
+
+    @Test
+    public void payShouldReturnNotFoundWhenIdDoesNotExist404() throws Exception {
+        ResultActions result = mockMvc
+                .perform(post("/orders/{id}/payment", nonExistingOrderId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isNotFound());
+    }
 }
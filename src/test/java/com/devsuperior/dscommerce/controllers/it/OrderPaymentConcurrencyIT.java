@@ -0,0 +1,90 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Teste de Integração sem rollback: pagamentos concorrentes precisam de dados commitados.
+//Banco e contexto próprios, descartados no fim, para que o pedido commitado e o estado em memória
+//dos serviços (ranking, estatísticas) não cheguem aos outros testes
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-payment-concurrency")
+@AutoConfigureMockMvc
+@DirtiesContext
+public class OrderPaymentConcurrencyIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    private String clientToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clientToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+    }
+
+    @Test
+    public void payShouldAcceptExactlyOnePaymentWhenOrderIsPaidConcurrently() throws Exception {
+        String body = "{\"items\":[{\"productId\":1,\"quantity\":1}]}";
+        String created = mockMvc
+                .perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Object orderId = new JacksonJsonParser().parseMap(created).get("id");
+
+        int threads = 8;
+        int paid = 0, conflicts = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc
+                            .perform(post("/orders/{id}/payment", orderId)
+                                    .header("Authorization", "Bearer " + clientToken)
+                                    .accept(MediaType.APPLICATION_JSON))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> result : results) {
+                int httpStatus = result.get();
+                if (httpStatus == 200) paid++;
+                if (httpStatus == 409) conflicts++;
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(1, paid);
+        Assertions.assertEquals(threads - 1, conflicts);
+    }
+}
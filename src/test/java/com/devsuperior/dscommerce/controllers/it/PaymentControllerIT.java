@@ -0,0 +1,112 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Teste de Integração
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class PaymentControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String adminToken, clientToken;
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        adminToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+        clientToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+        file = new MockMultipartFile("file", "settlement.csv", "text/csv",
+                "orderId,paidAt\n1,2022-07-25T15:00:00Z\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void reconcileShouldReturnReportWhenAdminLogged() throws Exception {
+        Long orderId = createOrder();
+        String csv = "orderId,paidAt\n"
+                + orderId + ",2024-01-10T10:00:00Z\n"
+                + orderId + ",2024-01-10T10:00:00Z\n" // repetida no arquivo
+                + "1,2022-07-25T15:00:00Z\n"          // pedido já pago
+                + "1000,2024-01-10T10:00:00Z\n"       // pedido inexistente
+                + "abc\n";                            // linha inválida
+        file = new MockMultipartFile("file", "settlement.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        ResultActions result = mockMvc
+                .perform(multipart("/payments/reconciliation")
+                        .file(file)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.lines").value(5));
+        result.andExpect(jsonPath("$.matched").value(1));
+        result.andExpect(jsonPath("$.unmatched").value(2));
+        result.andExpect(jsonPath("$.duplicates").value(2));
+        result.andExpect(jsonPath("$.linesPerSecond").exists());
+
+        Integer status = jdbcTemplate.queryForObject("SELECT status FROM tb_order WHERE id = ?", Integer.class, orderId);
+        Integer payments = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_payment WHERE order_id = ?", Integer.class, orderId);
+        Assertions.assertEquals(OrderStatus.PAID.ordinal(), status);
+        Assertions.assertEquals(1, payments);
+    }
+
+    @Test
+    public void reconcileShouldReturnForbiddenWhenClientLogged() throws Exception {
+        ResultActions result = mockMvc
+                .perform(multipart("/payments/reconciliation")
+                        .file(file)
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void reconcileShouldReturnUnauthorizedWhenNoTokenGiven() throws Exception {
+        ResultActions result = mockMvc
+                .perform(multipart("/payments/reconciliation")
+                        .file(file)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isUnauthorized());
+    }
+
+    private Long createOrder() throws Exception {
+        String body = "{\"items\":[{\"productId\":1,\"quantity\":1}]}";
+        String created = mockMvc
+                .perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) new JacksonJsonParser().parseMap(created).get("id")).longValue();
+    }
+}
@@ -0,0 +1,135 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Teste de Integração
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class UserControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String adminToken, clientToken;
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        adminToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+        clientToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+        file = new MockMultipartFile("file", "users.csv", "text/csv",
+                "Ana Lima,ana@empresa.com,911111111,1990-05-10,segredo1,\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void importUsersShouldReturnReportWhenAdminLogged() throws Exception {
+        String csv = "name,email,phone,birthDate,password,roles\n"
+                + "Ana Lima,ana@empresa.com,911111111,1990-05-10,segredo1,\n"
+                + "Bruno Reis,bruno@empresa.com,,,segredo2,CLIENT;ADMIN\n"
+                + "Ana Lima,ana@empresa.com,911111111,1990-05-10,outra,\n"        // repetida no arquivo
+                + "Carla Dias,carla@empresa.com,,,segredo3,ROLE_GERENTE\n"        // perfil inexistente
+                + "linha inválida\n"
+                + "Maria Brown,maria@gmail.com,988888888,2001-07-25,novasenha,\n"; // usuário existente
+        file = new MockMultipartFile("file", "users.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        ResultActions result = mockMvc
+                .perform(multipart("/users/import")
+                        .file(file)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.lines").value(6));
+        result.andExpect(jsonPath("$.created").value(2));
+        result.andExpect(jsonPath("$.updated").value(0));
+        result.andExpect(jsonPath("$.skipped").value(1));
+        result.andExpect(jsonPath("$.invalid").value(2));
+        result.andExpect(jsonPath("$.duplicates").value(1));
+        result.andExpect(jsonPath("$.usersPerSecond").exists());
+
+        Integer brunoRoles = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_user_role ur "
+                + "INNER JOIN tb_user u ON u.id = ur.user_id WHERE u.email = ?", Integer.class, "bruno@empresa.com");
+        Integer mariaRoles = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_user_role ur "
+                + "INNER JOIN tb_user u ON u.id = ur.user_id WHERE u.email = ?", Integer.class, "maria@gmail.com");
+        String mariaPassword = jdbcTemplate.queryForObject("SELECT password FROM tb_user WHERE email = ?", String.class,
+                "maria@gmail.com");
+        Assertions.assertEquals(2, brunoRoles);
+        Assertions.assertEquals(1, mariaRoles);
+        Assertions.assertTrue(passwordEncoder.matches("123456", mariaPassword));
+
+        tokenUtil.obtainAccessToken(mockMvc, "ana@empresa.com", "segredo1");
+    }
+
+    @Test
+    public void importUsersShouldUpdateExistingUsersWhenModeIsUpsert() throws Exception {
+        String csv = "Ana Lima,ana@empresa.com,911111111,1990-05-10,segredo1,\n"
+                + "Maria Brown,maria@gmail.com,988888888,2001-07-25,novasenha,CLIENT;ADMIN\n";
+        file = new MockMultipartFile("file", "users.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        ResultActions result = mockMvc
+                .perform(multipart("/users/import")
+                        .file(file)
+                        .param("mode", "upsert")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.lines").value(2));
+        result.andExpect(jsonPath("$.created").value(1));
+        result.andExpect(jsonPath("$.updated").value(1));
+        result.andExpect(jsonPath("$.skipped").value(0));
+
+        Integer mariaRoles = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_user_role ur "
+                + "INNER JOIN tb_user u ON u.id = ur.user_id WHERE u.email = ?", Integer.class, "maria@gmail.com");
+        String mariaPassword = jdbcTemplate.queryForObject("SELECT password FROM tb_user WHERE email = ?", String.class,
+                "maria@gmail.com");
+        Assertions.assertEquals(2, mariaRoles);
+        Assertions.assertTrue(passwordEncoder.matches("novasenha", mariaPassword));
+    }
+
+    @Test
+    public void importUsersShouldReturnForbiddenWhenClientLogged() throws Exception {
+        ResultActions result = mockMvc
+                .perform(multipart("/users/import")
+                        .file(file)
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void importUsersShouldReturnUnauthorizedWhenNoTokenGiven() throws Exception {
+        ResultActions result = mockMvc
+                .perform(multipart("/users/import")
+                        .file(file)
+                        .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isUnauthorized());
+    }
+}
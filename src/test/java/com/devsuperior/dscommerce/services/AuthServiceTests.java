@@ -1,5 +1,8 @@
 package com.devsuperior.dscommerce.services;
 
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,8 +10,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.devsuperior.dscommerce.config.authorization.AccessRole;
+import com.devsuperior.dscommerce.config.authorization.RoleMaskAuthenticationToken;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
 import com.devsuperior.dscommerce.tests.UserFactory;
@@ -31,6 +38,11 @@ public class AuthServiceTests {
 		otherClient = UserFactory.createCustomClientUser(2L, "Ana");
 	}
 	
+	@AfterEach
+	void tearDown() throws Exception {
+		SecurityContextHolder.clearContext();
+	}
+	
 	@Test
 	public void validateSelfOrAdminShouldDoNothingWhenAdminLogged() {
 		
@@ -66,5 +78,42 @@ public class AuthServiceTests {
 			service.validateSelfOrAdmin(userId);
 		});
 	}
-
+	
+	@Test
+	public void validateSelfOrAdminShouldUseTokenWithoutDatabaseWhenSelfLogged() {
+		
+		authenticate(AccessRole.CLIENT, selfClient.getId());
+		
+		Assertions.assertDoesNotThrow(() -> {
+			service.validateSelfOrAdmin(selfClient.getId());
+		});
+		Mockito.verify(userService, Mockito.never()).authenticated();
+	}
+	
+	@Test
+	public void validateSelfOrAdminShouldUseTokenWithoutDatabaseWhenAdminLogged() {
+		
+		authenticate(AccessRole.ADMIN, admin.getId());
+		
+		Assertions.assertDoesNotThrow(() -> {
+			service.validateSelfOrAdmin(otherClient.getId());
+		});
+		Mockito.verify(userService, Mockito.never()).authenticated();
+	}
+	
+	@Test
+	public void validateSelfOrAdminThrowsForbiddenExceptionWhenTokenOfOtherClient() {
+		
+		authenticate(AccessRole.CLIENT, selfClient.getId());
+		
+		Assertions.assertThrows(ForbiddenException.class, () -> {
+			service.validateSelfOrAdmin(otherClient.getId());
+		});
+	}
+	
+	private void authenticate(AccessRole role, Long userId) {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "RS256").subject("myclientid")
+				.issuedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(60)).build();
+		SecurityContextHolder.getContext().setAuthentication(new RoleMaskAuthenticationToken(jwt, role.bit(), userId));
+	}
 }
@@ -0,0 +1,101 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.RelatedProductDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.projections.BasketItemProjection;
+import com.devsuperior.dscommerce.repositories.OrderItemRepository;
+
+public class CoOccurrenceServiceTests {
+
+	private CoOccurrenceService service;
+	
+	private OrderItemRepository orderItemRepository;
+	
+	private ProductMinDTO tv, ps5, macbook, pc;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new CoOccurrenceService(2);
+		
+		orderItemRepository = Mockito.mock(OrderItemRepository.class);
+		ReflectionTestUtils.setField(service, "orderItemRepository", orderItemRepository);
+		
+		tv = new ProductMinDTO(1L, "Smart TV", 2190.0, "");
+		ps5 = new ProductMinDTO(2L, "PS5", 3999.0, "");
+		macbook = new ProductMinDTO(3L, "Macbook Pro", 1250.0, "");
+		pc = new ProductMinDTO(4L, "PC Gamer", 1200.0, "");
+	}
+	
+	@Test
+	public void findNeighboursShouldRankProductsBoughtTogetherMostOften() {
+		service.record(List.of(tv, ps5));
+		service.record(List.of(tv, ps5, macbook));
+		service.record(List.of(tv, macbook, pc));
+		service.record(List.of(tv, ps5));
+		
+		List<RelatedProductDTO> result = service.findNeighbours(tv.getId(), 5);
+		
+		// limitado a max-neighbours = 2
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertEquals(ps5.getId(), result.get(0).getId());
+		Assertions.assertEquals(3, result.get(0).getCount());
+		Assertions.assertEquals(macbook.getId(), result.get(1).getId());
+		Assertions.assertEquals(2, result.get(1).getCount());
+	}
+	
+	@Test
+	public void findNeighboursShouldReflectOrdersRecordedAfterRankingWasCached() {
+		service.record(List.of(tv, ps5));
+		Assertions.assertEquals(1, service.findNeighbours(tv.getId(), 1).get(0).getCount());
+		
+		service.record(List.of(tv, ps5, ps5));
+		
+		Assertions.assertEquals(2, service.findNeighbours(tv.getId(), 1).get(0).getCount());
+	}
+	
+	@Test
+	public void findNeighboursShouldReturnEmptyListWhenProductWasNeverBoughtWithOthers() {
+		service.record(List.of(tv));
+		
+		Assertions.assertTrue(service.findNeighbours(tv.getId(), 5).isEmpty());
+		Assertions.assertTrue(service.findNeighbours(100L, 5).isEmpty());
+	}
+	
+	@Test
+	public void backfillShouldCountAllHistoricalBasketsInParallel() {
+		List<BasketItemProjection> items = new ArrayList<>();
+		// 5000 pedidos (TV + PS5) e 2000 pedidos (TV + Macbook), o bastante para dividir as tarefas
+		for (long orderId = 1; orderId <= 7000; orderId++) {
+			items.add(item(orderId, tv));
+			items.add(item(orderId, orderId <= 5000 ? ps5 : macbook));
+		}
+		Mockito.when(orderItemRepository.searchBasketItems(OrderStatus.CANCELED)).thenReturn(items);
+		
+		service.backfill();
+		
+		List<RelatedProductDTO> result = service.findNeighbours(tv.getId(), 2);
+		Assertions.assertEquals(5000, result.get(0).getCount());
+		Assertions.assertEquals(2000, result.get(1).getCount());
+		Assertions.assertEquals(5000, service.findNeighbours(ps5.getId(), 1).get(0).getCount());
+	}
+	
+	private static BasketItemProjection item(Long orderId, ProductMinDTO product) {
+		return new BasketItemProjection() {
+			public Long getOrderId() { return orderId; }
+			public Long getProductId() { return product.getId(); }
+			public String getName() { return product.getName(); }
+			public Double getPrice() { return product.getPrice(); }
+			public String getImgUrl() { return product.getImgUrl(); }
+		};
+	}
+}
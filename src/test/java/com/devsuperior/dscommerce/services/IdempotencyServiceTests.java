@@ -0,0 +1,170 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
+import com.devsuperior.dscommerce.services.exceptions.ServiceUnavailableException;
+import com.devsuperior.dscommerce.tests.OrderFactory;
+import com.devsuperior.dscommerce.tests.UserFactory;
+import com.devsuperior.dscommerce.util.CustomUserUtil;
+
+public class IdempotencyServiceTests {
+
+	private IdempotencyService service;
+	
+	private CustomUserUtil userUtil;
+	
+	private OrderDTO orderDTO, otherOrderDTO;
+	private AtomicInteger submissions;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new IdempotencyService(60, 100);
+		
+		userUtil = Mockito.mock(CustomUserUtil.class);
+		Mockito.when(userUtil.getLoggedUsername()).thenReturn("maria@gmail.com");
+		ReflectionTestUtils.setField(service, "customUserUtil", userUtil);
+		
+		User client = UserFactory.createClientUser();
+		Order order = OrderFactory.createOrder(client);
+		orderDTO = new OrderDTO(order);
+		
+		order.getItems().iterator().next().setQuantity(5);
+		otherOrderDTO = new OrderDTO(order);
+		
+		submissions = new AtomicInteger();
+	}
+	
+	@Test
+	public void executeShouldReturnCachedResultWhenKeyIsRepeated() {
+		
+		OrderDTO first = service.execute("key-1", orderDTO, () -> submit(orderDTO));
+		OrderDTO second = service.execute("key-1", orderDTO, () -> submit(orderDTO));
+		
+		Assertions.assertSame(first, second);
+		Assertions.assertEquals(1, submissions.get());
+	}
+	
+	@Test
+	public void executeShouldThrowConflictExceptionWhenKeyIsReusedWithOtherItems() {
+		
+		service.execute("key-1", orderDTO, () -> submit(orderDTO));
+		
+		Assertions.assertThrows(ConflictException.class, () -> {
+			service.execute("key-1", otherOrderDTO, () -> submit(otherOrderDTO));
+		});
+	}
+	
+	@Test
+	public void executeShouldRunSubmissionAgainWhenPreviousAttemptFailed() {
+		
+		Assertions.assertThrows(IllegalStateException.class, () -> {
+			service.execute("key-1", orderDTO, () -> {
+				throw new IllegalStateException();
+			});
+		});
+		
+		OrderDTO result = service.execute("key-1", orderDTO, () -> submit(orderDTO));
+		
+		Assertions.assertNotNull(result);
+		Assertions.assertEquals(1, submissions.get());
+	}
+	
+	@Test
+	public void executeShouldCollapseConcurrentDuplicatesIntoOneSubmission() throws Exception {
+		
+		int threads = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			Future<?>[] results = new Future<?>[threads];
+			for (int i = 0; i < threads; i++) {
+				results[i] = executor.submit(() -> {
+					start.await();
+					return service.execute("key-1", orderDTO, () -> {
+						sleep(50);
+						return submit(orderDTO);
+					});
+				});
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				Assertions.assertNotNull(result.get(5, TimeUnit.SECONDS));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		Assertions.assertEquals(1, submissions.get());
+	}
+	
+	@Test
+	public void executeShouldKeepLiveKeysAndRejectNewKeysWhenFull() throws Exception {
+		
+		service = new IdempotencyService(60, 1);
+		ReflectionTestUtils.setField(service, "customUserUtil", userUtil);
+		
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Future<OrderDTO> inFlight = executor.submit(() -> service.execute("key-1", orderDTO, () -> {
+				started.countDown();
+				await(release);
+				return submit(orderDTO);
+			}));
+			Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+			
+			Assertions.assertThrows(ServiceUnavailableException.class, () -> {
+				service.execute("key-2", orderDTO, () -> submit(orderDTO));
+			});
+			
+			release.countDown();
+			OrderDTO first = inFlight.get(5, TimeUnit.SECONDS);
+			Assertions.assertSame(first, service.execute("key-1", orderDTO, () -> submit(orderDTO)));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		Assertions.assertEquals(1, submissions.get());
+	}
+	
+	private OrderDTO submit(OrderDTO dto) {
+		submissions.incrementAndGet();
+		return dto;
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
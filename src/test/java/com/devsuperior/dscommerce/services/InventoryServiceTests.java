@@ -0,0 +1,176 @@
+package com.devsuperior.dscommerce.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.devsuperior.dscommerce.entities.Inventory;
+import com.devsuperior.dscommerce.repositories.InventoryRepository;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
+
+@ExtendWith(SpringExtension.class)
+public class InventoryServiceTests {
+
+	@InjectMocks
+	private InventoryService service;
+	
+	@Mock
+	private InventoryRepository repository;
+	
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+	
+	private Long hotProductId, newProductId;
+	private int initialStock;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		hotProductId = 1L;
+		newProductId = 2L;
+		initialStock = 100;
+		
+		Mockito.when(repository.findById(hotProductId)).thenReturn(Optional.of(new Inventory(hotProductId, initialStock)));
+		Mockito.when(repository.findById(newProductId)).thenReturn(Optional.empty());
+	}
+	
+	@Test
+	public void reserveShouldDecrementAvailableStock() {
+		
+		service.reserve(hotProductId, 3);
+		
+		Assertions.assertEquals(initialStock - 3, service.available(hotProductId));
+	}
+	
+	@Test
+	public void reserveShouldThrowConflictExceptionWhenStockIsInsufficient() {
+		
+		Assertions.assertThrows(ConflictException.class, () -> {
+			service.reserve(hotProductId, initialStock + 1);
+		});
+		Assertions.assertEquals(initialStock, service.available(hotProductId));
+	}
+	
+	@Test
+	public void reserveShouldThrowConflictExceptionWhenProductHasNoInventoryRow() {
+		
+		Assertions.assertThrows(ConflictException.class, () -> {
+			service.reserve(newProductId, 1);
+		});
+		Assertions.assertEquals(0, service.available(newProductId));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void flushShouldInsertRowWhenRestockedProductHasNone() {
+		
+		Mockito.when(jdbcTemplate.batchUpdate(Mockito.startsWith("UPDATE"), anyList())).thenReturn(new int[] { 0 });
+		service.restock(newProductId, 7);
+		service.reserve(newProductId, 2);
+		
+		service.flush();
+		
+		ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(jdbcTemplate).batchUpdate(Mockito.startsWith("INSERT"), captor.capture());
+		Assertions.assertEquals(5, captor.getValue().get(0)[0]);
+		Assertions.assertEquals(newProductId, captor.getValue().get(0)[1]);
+		Assertions.assertEquals(5, service.available(newProductId));
+	}
+	
+	@Test
+	public void releaseShouldReturnReservedStock() {
+		
+		service.reserve(hotProductId, 10);
+		service.release(hotProductId, 10);
+		
+		Assertions.assertEquals(initialStock, service.available(hotProductId));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void flushShouldWriteNetDeltaInOneBatch() {
+		
+		Mockito.when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1 });
+		service.reserve(hotProductId, 10);
+		service.reserve(hotProductId, 5);
+		service.release(hotProductId, 2);
+		
+		service.flush();
+		
+		ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+		Assertions.assertEquals(1, captor.getValue().size());
+		Assertions.assertEquals(-13, captor.getValue().get(0)[0]);
+		Assertions.assertEquals(hotProductId, captor.getValue().get(0)[1]);
+	}
+	
+	@Test
+	public void flushShouldKeepDeltaWhenBatchFails() {
+		
+		Mockito.when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(RuntimeException.class).thenReturn(new int[] { 1 });
+		service.reserve(hotProductId, 10);
+		
+		Assertions.assertThrows(RuntimeException.class, () -> {
+			service.flush();
+		});
+		service.flush();
+		
+		Mockito.verify(jdbcTemplate, Mockito.times(2)).batchUpdate(anyString(), anyList());
+	}
+	
+	@Test
+	public void reserveShouldNeverOversellWhenThousandThreadsBuySameProduct() throws Exception {
+		
+		int threads = 1000;
+		AtomicInteger sold = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		
+		for (int i = 0; i < threads; i++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+					service.reserve(hotProductId, 1);
+					sold.incrementAndGet();
+				}
+				catch (ConflictException e) {
+					rejected.incrementAndGet();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				finally {
+					done.countDown();
+				}
+			});
+		}
+		start.countDown();
+		Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		
+		Assertions.assertEquals(initialStock, sold.get());
+		Assertions.assertEquals(threads - initialStock, rejected.get());
+		Assertions.assertEquals(0, service.available(hotProductId));
+		Mockito.verify(repository, Mockito.atLeastOnce()).findById(any());
+	}
+}
@@ -0,0 +1,68 @@
+package com.devsuperior.dscommerce.services;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.events.OrderItemsChangedEvent;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OrderAuditServiceTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	public void replayShouldReturnStatusAndItemRecordsInAppendOrder() throws Exception {
+
+		Instant moment = Instant.parse("2026-01-10T10:00:00Z");
+		OrderAuditService service = new OrderAuditService(true, dir.toString(), 4096, 10, new SimpleMeterRegistry());
+		service.start();
+		service.onStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.WAITING_PAYMENT, moment));
+		service.onItemsChanged(new OrderItemsChangedEvent(1L, moment, List.of(
+				new OrderItemsChangedEvent.Item(2L, 3, 10.5), new OrderItemsChangedEvent.Item(4L, 1, 99.0))));
+		service.onStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.PAID, moment.plusSeconds(60)));
+		service.stop();
+
+		// reabre o log em uma nova instância, como após um restart
+		OrderAuditService reopened = new OrderAuditService(true, dir.toString(), 4096, 10, new SimpleMeterRegistry());
+		reopened.start();
+		List<String> result = new ArrayList<>();
+		reopened.replay(
+				x -> result.add(x.getOrderId() + " " + x.getStatus() + " " + x.getMoment()),
+				x -> x.getItems().forEach(item -> result.add(x.getOrderId() + " item " + item.getProductId()
+						+ " x" + item.getQuantity() + " @" + item.getPrice())));
+		reopened.stop();
+
+		Assertions.assertEquals(List.of(
+				"1 WAITING_PAYMENT 2026-01-10T10:00:00Z",
+				"1 item 2 x3 @10.5",
+				"1 item 4 x1 @99.0",
+				"1 PAID 2026-01-10T10:01:00Z"), result);
+	}
+
+	@Test
+	public void onStatusChangedShouldDropAndCountRecordsWhenQueueIsFull() {
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		OrderAuditService service = new OrderAuditService(true, dir.toString(), 4096, 1, meterRegistry);
+		// um writer que nunca drena a fila
+		ReflectionTestUtils.setField(service, "writer", new Thread(() -> { }));
+
+		OrderStatusChangedEvent event = new OrderStatusChangedEvent(1L, OrderStatus.PAID, Instant.now());
+		service.onStatusChanged(event);
+		service.onStatusChanged(event);
+		service.onStatusChanged(event);
+
+		Assertions.assertEquals(2.0, meterRegistry.counter("audit.log.dropped").count());
+	}
+}
@@ -0,0 +1,98 @@
+package com.devsuperior.dscommerce.services;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.tests.OrderFactory;
+import com.devsuperior.dscommerce.tests.UserFactory;
+
+public class OrderEventServiceTests {
+
+	private OrderEventService service;
+	
+	private OrderService orderService;
+	
+	private Long orderId;
+	private Order order;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new OrderEventService(60000L);
+		
+		orderService = Mockito.mock(OrderService.class);
+		ReflectionTestUtils.setField(service, "orderService", orderService);
+		
+		order = OrderFactory.createOrder(UserFactory.createCustomClientUser(2L, "Bob"));
+		orderId = order.getId();
+		Mockito.when(orderService.findById(orderId)).thenAnswer(x -> new OrderDTO(order));
+	}
+	
+	@Test
+	public void subscribeShouldKeepSubscriberUntilOrderReachesFinalStatus() {
+		
+		service.subscribe(orderId);
+		service.subscribe(orderId);
+		Assertions.assertEquals(2, service.subscriberCount(orderId));
+		
+		service.onStatusChanged(new OrderStatusChangedEvent(orderId, OrderStatus.PAID, Instant.now()));
+		Assertions.assertEquals(2, service.subscriberCount(orderId));
+		
+		service.onStatusChanged(new OrderStatusChangedEvent(orderId, OrderStatus.CANCELED, Instant.now()));
+		Assertions.assertEquals(0, service.subscriberCount(orderId));
+	}
+	
+	@Test
+	public void subscribeShouldNotKeepSubscriberWhenOrderIsAlreadyFinal() {
+		order.setStatus(OrderStatus.DELIVERED);
+		
+		service.subscribe(orderId);
+		
+		Assertions.assertEquals(0, service.subscriberCount(orderId));
+	}
+	
+	@Test
+	public void subscribeShouldNotMissStatusChangeCommittedWhileReadingOrder() {
+		Mockito.when(orderService.findById(orderId)).thenAnswer(x -> {
+			OrderDTO dto = new OrderDTO(order);
+			service.onStatusChanged(new OrderStatusChangedEvent(orderId, OrderStatus.CANCELED, Instant.now()));
+			return dto;
+		});
+		
+		service.subscribe(orderId);
+		
+		Assertions.assertEquals(0, service.subscriberCount(orderId));
+	}
+	
+	@Test
+	public void subscribeShouldThrowForbiddenExceptionWhenOrderDoesNotBelongToUser() {
+		Mockito.when(orderService.findById(orderId)).thenThrow(ForbiddenException.class);
+		
+		Assertions.assertThrows(ForbiddenException.class, () -> service.subscribe(orderId));
+		Assertions.assertEquals(0, service.subscriberCount(orderId));
+	}
+	
+	@Test
+	public void heartbeatShouldDropSubscribersThatCanNoLongerBeWritten() {
+		
+		for (int i = 0; i < 999; i++) {
+			service.subscribe(orderId);
+		}
+		SseEmitter closed = service.subscribe(orderId);
+		closed.complete();
+		
+		service.heartbeat();
+		
+		Assertions.assertEquals(999, service.subscriberCount(orderId));
+	}
+}
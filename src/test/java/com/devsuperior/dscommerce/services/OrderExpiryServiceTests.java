@@ -0,0 +1,77 @@
+package com.devsuperior.dscommerce.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+
+public class OrderExpiryServiceTests {
+
+	private OrderExpiryService service;
+	
+	private JdbcTemplate jdbcTemplate;
+	private InventoryService inventoryService;
+	private ApplicationEventPublisher eventPublisher;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new OrderExpiryService(true, 60, 1000, 64, 100);
+		
+		jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+		inventoryService = Mockito.mock(InventoryService.class);
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "inventoryService", inventoryService);
+		ReflectionTestUtils.setField(service, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+		eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+		ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void cancelShouldReleaseStockOnlyForOrdersStillWaitingPayment() {
+		
+		Mockito.when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 0 });
+		Mockito.when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+				.thenReturn(List.of(new OrderExpiryService.CanceledItem(10L, 1L, 3L, 2, 50.0),
+						new OrderExpiryService.CanceledItem(10L, 1L, 4L, 1, 20.0)));
+		
+		List<Long> result = service.cancel(List.of(10L, 11L));
+		
+		Assertions.assertEquals(List.of(10L), result);
+		Mockito.verify(inventoryService).release(3L, 2);
+		Mockito.verify(inventoryService).release(4L, 1);
+		
+		ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+		Mockito.verify(eventPublisher).publishEvent(event.capture());
+		Assertions.assertEquals(10L, event.getValue().getOrderId());
+		Assertions.assertEquals(OrderStatus.CANCELED, event.getValue().getStatus());
+		Assertions.assertEquals(1L, event.getValue().getClientId());
+		Assertions.assertEquals(120.0, event.getValue().getTotal());
+	}
+	
+	@Test
+	public void cancelShouldNotReleaseStockWhenNoOrderWasCanceled() {
+		
+		Mockito.when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 0 });
+		
+		List<Long> result = service.cancel(List.of(10L));
+		
+		Assertions.assertTrue(result.isEmpty());
+		Mockito.verifyNoInteractions(inventoryService);
+	}
+}
@@ -0,0 +1,78 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+
+//Benchmark: mvn test -Dbenchmark=true -Dtest=OrderIngestionBenchmarkTests
+//Banco próprio, descartado com o contexto: os pedidos commitados não chegam aos outros testes
+@SpringBootTest(properties = { "orders.ingestion.async=true",
+		"spring.datasource.url=jdbc:h2:mem:order-ingestion-benchmark", "spring.jpa.show-sql=false" })
+@DirtiesContext
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderIngestionBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderIngestionBenchmarkTests.class);
+
+	private static final int ORDERS = 2000;
+	
+	@Autowired
+	private OrderService orderService;
+	
+	@Autowired
+	private OrderIngestionService ingestionService;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private InventoryService inventoryService;
+	
+	@Test
+	public void compareSynchronousInsertAndGroupCommitThroughput() throws Exception {
+		
+		User client = userRepository.findByEmail("maria@gmail.com").get();
+		OrderDTO dto = new OrderDTO(null, null, null, null, null);
+		dto.getItems().add(new OrderItemDTO(1L, null, null, 1, null));
+		inventoryService.restock(1L, 2 * ORDERS + 200);
+		
+		for (int i = 0; i < 200; i++) {
+			orderService.insert(dto, client);
+		}
+		
+		long start = System.nanoTime();
+		for (int i = 0; i < ORDERS; i++) {
+			orderService.insert(dto, client);
+		}
+		double synchronous = ORDERS / ((System.nanoTime() - start) / 1e9);
+		
+		start = System.nanoTime();
+		List<OrderIngestionService.Ticket> tickets = new ArrayList<>(ORDERS);
+		for (int i = 0; i < ORDERS; i++) {
+			tickets.add(ingestionService.enqueue(dto, client));
+		}
+		for (OrderIngestionService.Ticket ticket : tickets) {
+			while (OrderIngestionService.QUEUED.equals(ticket.getStatus())) {
+				Thread.sleep(1);
+			}
+			Assertions.assertEquals(OrderIngestionService.COMPLETED, ticket.getStatus());
+		}
+		double groupCommit = ORDERS / ((System.nanoTime() - start) / 1e9);
+		
+		logger.info("{} orders: synchronous {} orders/s, group commit {} orders/s", ORDERS, Math.round(synchronous),
+				Math.round(groupCommit));
+	}
+}
@@ -0,0 +1,135 @@
+package com.devsuperior.dscommerce.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderIngestionDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
+import com.devsuperior.dscommerce.services.exceptions.TooManyRequestsException;
+import com.devsuperior.dscommerce.tests.OrderFactory;
+import com.devsuperior.dscommerce.tests.UserFactory;
+
+import jakarta.persistence.EntityNotFoundException;
+
+public class OrderIngestionServiceTests {
+
+	private OrderIngestionService service;
+	
+	private OrderService orderService;
+	
+	private User client;
+	private OrderDTO orderDTO, invalidOrderDTO;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new OrderIngestionService(false, 2, 10, 5, 60, 10);
+		
+		orderService = Mockito.mock(OrderService.class);
+		ReflectionTestUtils.setField(service, "orderService", orderService);
+		ReflectionTestUtils.setField(service, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+		
+		client = UserFactory.createClientUser();
+		UserService userService = Mockito.mock(UserService.class);
+		Mockito.when(userService.authenticated()).thenReturn(client);
+		ReflectionTestUtils.setField(service, "userService", userService);
+		Order order = OrderFactory.createOrder(client);
+		orderDTO = new OrderDTO(order);
+		invalidOrderDTO = new OrderDTO(order);
+		
+		Mockito.when(orderService.insert(orderDTO, client)).thenReturn(orderDTO);
+		Mockito.when(orderService.insert(invalidOrderDTO, client)).thenThrow(EntityNotFoundException.class);
+	}
+	
+	@Test
+	public void enqueueShouldThrowTooManyRequestsExceptionWhenQueueIsFull() {
+		
+		service.enqueue(orderDTO, client);
+		service.enqueue(orderDTO, client);
+		
+		Assertions.assertThrows(TooManyRequestsException.class, () -> {
+			service.enqueue(orderDTO, client);
+		});
+	}
+	
+	@Test
+	public void submitShouldReturnSameTicketWhenIdempotencyKeyIsRepeated() {
+		
+		OrderIngestionDTO first = service.submit(orderDTO, "key-1");
+		OrderIngestionDTO second = service.submit(orderDTO, "key-1");
+		
+		Assertions.assertEquals(first.getId(), second.getId());
+		service.enqueue(orderDTO, client);
+		Assertions.assertThrows(TooManyRequestsException.class, () -> {
+			service.enqueue(orderDTO, client);
+		});
+	}
+	
+	@Test
+	public void submitShouldThrowConflictExceptionWhenIdempotencyKeyIsReusedWithOtherItems() {
+		
+		service.submit(orderDTO, "key-1");
+		Order order = OrderFactory.createOrder(client);
+		order.getItems().iterator().next().setQuantity(5);
+		OrderDTO otherOrderDTO = new OrderDTO(order);
+		
+		Assertions.assertThrows(ConflictException.class, () -> {
+			service.submit(otherOrderDTO, "key-1");
+		});
+	}
+	
+	@Test
+	public void commitShouldCompleteEveryTicketOfTheBatch() {
+		
+		OrderIngestionService.Ticket first = service.enqueue(orderDTO, client);
+		OrderIngestionService.Ticket second = service.enqueue(orderDTO, client);
+		
+		service.commit(List.of(first, second));
+		
+		Assertions.assertEquals(OrderIngestionService.COMPLETED, first.getStatus());
+		Assertions.assertEquals(OrderIngestionService.COMPLETED, second.getStatus());
+		Mockito.verify(orderService, Mockito.times(2)).insert(orderDTO, client);
+	}
+	
+	@Test
+	public void commitShouldIsolateFailedOrderWhenBatchFails() {
+		
+		OrderIngestionService.Ticket valid = service.enqueue(orderDTO, client);
+		OrderIngestionService.Ticket invalid = service.enqueue(invalidOrderDTO, client);
+		
+		service.commit(List.of(valid, invalid));
+		
+		Assertions.assertEquals(OrderIngestionService.COMPLETED, valid.getStatus());
+		Assertions.assertEquals(OrderIngestionService.FAILED, invalid.getStatus());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void enqueueShouldDropFinishedTicketsWhenMaxTicketsIsExceeded() {
+		service = new OrderIngestionService(false, 20, 10, 5, 60, 10);
+		ReflectionTestUtils.setField(service, "orderService", orderService);
+		ReflectionTestUtils.setField(service, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+		
+		List<OrderIngestionService.Ticket> finished = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			finished.add(service.enqueue(orderDTO, client));
+		}
+		service.commit(finished);
+		OrderIngestionService.Ticket queued = service.enqueue(orderDTO, client);
+		
+		Map<String, OrderIngestionService.Ticket> tickets =
+				(Map<String, OrderIngestionService.Ticket>) ReflectionTestUtils.getField(service, "tickets");
+		Assertions.assertEquals(9, tickets.size());
+		Assertions.assertTrue(tickets.containsValue(queued));
+	}
+}
@@ -12,17 +12,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.devsuperior.dscommerce.dto.OrderDTO;
 import com.devsuperior.dscommerce.entities.Order;
 import com.devsuperior.dscommerce.entities.OrderItem;
+import com.devsuperior.dscommerce.entities.OrderStatus;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.repositories.OrderItemRepository;
 import com.devsuperior.dscommerce.repositories.OrderRepository;
+import com.devsuperior.dscommerce.repositories.PaymentRepository;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.services.exceptions.ConflictException;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
 import com.devsuperior.dscommerce.tests.OrderFactory;
@@ -49,9 +53,30 @@ public class OrderServiceTests {
 	@Mock
 	private OrderItemRepository orderItemRepository;
 	
+	@Mock
+	private PaymentRepository paymentRepository;
+	
 	@Mock
 	private UserService userService;
 	
+	@Mock
+	private TopSellerService topSellerService;
+	
+	@Mock
+	private InventoryService inventoryService;
+	
+	@Mock
+	private CoOccurrenceService coOccurrenceService;
+	
+	@Mock
+	private OrderExpiryService orderExpiryService;
+	
+	@Mock
+	private OutboxService outboxService;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
 	private Long existingOrderId, nonExistingOrderId;
 	private Long existingProductId, nonExistingProductId;
 	private Order order;
@@ -180,5 +205,37 @@ public class OrderServiceTests {
 			OrderDTO result = service.insert(orderDTO);
 		});
 	}
-
+	
+	@Test
+	public void payShouldReturnOrderDTOWhenOrderIsWaitingPayment() {
+		
+		Mockito.doNothing().when(authService).validateSelfOrAdmin(any());
+		Mockito.when(repository.updateStatus(existingOrderId, OrderStatus.WAITING_PAYMENT, OrderStatus.PAID)).thenReturn(1);
+		Mockito.when(repository.getReferenceById(existingOrderId)).thenReturn(order);
+		
+		OrderDTO result = service.pay(existingOrderId);
+		
+		Assertions.assertNotNull(result);
+		Mockito.verify(paymentRepository).saveAndFlush(any());
+	}
+	
+	@Test
+	public void payShouldThrowConflictExceptionWhenOrderIsNotWaitingPayment() {
+		
+		Mockito.doNothing().when(authService).validateSelfOrAdmin(any());
+		Mockito.when(repository.updateStatus(existingOrderId, OrderStatus.WAITING_PAYMENT, OrderStatus.PAID)).thenReturn(0);
+		
+		Assertions.assertThrows(ConflictException.class, () -> {
+			service.pay(existingOrderId);
+		});
+		Mockito.verifyNoInteractions(paymentRepository);
+	}
+	
+	@Test
+	public void payShouldThrowResourceNotFoundExceptionWhenIdDoesNotExist() {
+		
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.pay(nonExistingOrderId);
+		});
+	}
 }
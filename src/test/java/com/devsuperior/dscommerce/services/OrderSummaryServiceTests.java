@@ -0,0 +1,99 @@
+package com.devsuperior.dscommerce.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.devsuperior.dscommerce.dto.OrderSummaryDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.OrderSummary;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+import com.devsuperior.dscommerce.repositories.OrderSummaryRepository;
+import com.devsuperior.dscommerce.tests.UserFactory;
+
+public class OrderSummaryServiceTests {
+
+	private OrderSummaryService service;
+	
+	private OrderSummaryRepository repository;
+	private UserService userService;
+	private JdbcTemplate jdbcTemplate;
+	
+	private User admin, client;
+	private Pageable pageable;
+	private Page<OrderSummary> page;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new OrderSummaryService(2);
+		
+		repository = Mockito.mock(OrderSummaryRepository.class);
+		userService = Mockito.mock(UserService.class);
+		jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+		ReflectionTestUtils.setField(service, "repository", repository);
+		ReflectionTestUtils.setField(service, "userService", userService);
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+		
+		admin = UserFactory.createCustomAdminUser(1L, "Jef");
+		client = UserFactory.createCustomClientUser(2L, "Bob");
+		
+		pageable = PageRequest.of(0, 12);
+		page = new PageImpl<>(List.of(new OrderSummary(1L, Instant.now(), OrderStatus.PAID, 2L, "Bob", 2, 20.0, "PS5")));
+	}
+	
+	@Test
+	public void findAllShouldReturnAllOrdersWhenAdminLogged() {
+		Mockito.when(userService.authenticated()).thenReturn(admin);
+		Mockito.when(repository.findAll(pageable)).thenReturn(page);
+		
+		Page<OrderSummaryDTO> result = service.findAll(pageable);
+		
+		Assertions.assertEquals(1, result.getTotalElements());
+		Mockito.verify(repository, Mockito.never()).findByClientId(any(), any());
+	}
+	
+	@Test
+	public void findAllShouldReturnOwnOrdersWhenClientLogged() {
+		Mockito.when(userService.authenticated()).thenReturn(client);
+		Mockito.when(repository.findByClientId(client.getId(), pageable)).thenReturn(page);
+		
+		Page<OrderSummaryDTO> result = service.findAll(pageable);
+		
+		Assertions.assertEquals("PS5", result.getContent().get(0).getFirstProductName());
+		Mockito.verify(repository, Mockito.never()).findAll(pageable);
+	}
+	
+	@Test
+	public void refreshShouldRewriteEachDirtyOrderOnceInChunks() {
+		service.onStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.WAITING_PAYMENT, Instant.now()));
+		service.onStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.PAID, Instant.now()));
+		service.onStatusChanged(new OrderStatusChangedEvent(2L, OrderStatus.WAITING_PAYMENT, Instant.now()));
+		service.onStatusChanged(new OrderStatusChangedEvent(3L, OrderStatus.WAITING_PAYMENT, Instant.now()));
+		
+		service.refresh();
+		
+		// 3 pedidos distintos em chunks de 2
+		Mockito.verify(jdbcTemplate, Mockito.times(2)).update(startsWith("DELETE"), any(Object[].class));
+		Mockito.verify(jdbcTemplate, Mockito.times(2)).update(startsWith("INSERT"), any(Object[].class));
+		
+		service.refresh();
+		Mockito.verify(jdbcTemplate, Mockito.times(4)).update(anyString(), any(Object[].class));
+	}
+}
@@ -0,0 +1,117 @@
+package com.devsuperior.dscommerce.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.devsuperior.dscommerce.entities.OutboxMessage;
+import com.devsuperior.dscommerce.projections.OutboxStatsProjection;
+import com.devsuperior.dscommerce.repositories.OutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OutboxServiceTests {
+
+	private OutboxService service;
+	
+	private OutboxRepository repository;
+	private OutboxHandler handler;
+	private SimpleMeterRegistry meterRegistry;
+	
+	private OutboxMessage ok, broken;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		meterRegistry = new SimpleMeterRegistry();
+		service = new OutboxService(2, 3, meterRegistry);
+		
+		repository = Mockito.mock(OutboxRepository.class);
+		handler = Mockito.mock(OutboxHandler.class);
+		ReflectionTestUtils.setField(service, "repository", repository);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "handlers", List.of(handler));
+		
+		ok = new OutboxMessage(1L, OutboxService.ORDER_CREATED, 10L, "{}", Instant.now());
+		broken = new OutboxMessage(2L, OutboxService.ORDER_CREATED, 11L, "{}", Instant.now());
+		
+		Mockito.when(handler.types()).thenReturn(Set.of(OutboxService.ORDER_CREATED));
+		Mockito.doThrow(IllegalStateException.class).when(handler).handle(broken);
+	}
+	
+	@Test
+	public void dispatchBatchShouldDeleteDeliveredAndRetryFailedMessages() {
+		Mockito.when(repository.searchPending(anyInt(), anyCollection(), any(Pageable.class))).thenReturn(List.of(ok, broken));
+		
+		int sent = service.dispatchBatch();
+		
+		Assertions.assertEquals(1, sent);
+		Mockito.verify(repository).deleteByIds(List.of(1L));
+		Mockito.verify(repository).incrementAttempts(List.of(2L));
+		Assertions.assertEquals(1.0, meterRegistry.get("outbox.delivered").counter().count());
+		Assertions.assertEquals(1.0, meterRegistry.get("outbox.failed").counter().count());
+	}
+	
+	@Test
+	public void dispatchShouldPollUntilBatchIsNotFullAndRefreshLag() {
+		OutboxMessage other = new OutboxMessage(3L, OutboxService.ORDER_CREATED, 12L, "{}", Instant.now());
+		Mockito.when(repository.searchPending(anyInt(), anyCollection(), any(Pageable.class)))
+				.thenReturn(List.of(ok, other))
+				.thenReturn(List.of());
+		OutboxStatsProjection stats = Mockito.mock(OutboxStatsProjection.class);
+		Mockito.when(stats.getPending()).thenReturn(5L);
+		Mockito.when(stats.getOldest()).thenReturn(Instant.now().minusSeconds(30));
+		Mockito.when(repository.searchStats(3)).thenReturn(stats);
+		
+		service.dispatch();
+		
+		Mockito.verify(repository, Mockito.times(2)).searchPending(Mockito.eq(3),
+				Mockito.eq(Set.of(OutboxService.ORDER_CREATED)), any(Pageable.class));
+		Mockito.verify(handler).handle(other);
+		Assertions.assertEquals(5.0, meterRegistry.get("outbox.pending").gauge().value());
+		Assertions.assertTrue(meterRegistry.get("outbox.lag").gauge().value() >= 30.0);
+	}
+	
+	@Test
+	public void dispatchShouldKeepMessagesPendingWhenNoHandlerTakesThem() {
+		ReflectionTestUtils.setField(service, "handlers", List.of());
+		OutboxStatsProjection stats = Mockito.mock(OutboxStatsProjection.class);
+		Mockito.when(stats.getPending()).thenReturn(2L);
+		Mockito.when(stats.getOldest()).thenReturn(Instant.now().minusSeconds(30));
+		Mockito.when(repository.searchStats(3)).thenReturn(stats);
+		
+		service.dispatch();
+		
+		Mockito.verify(repository, Mockito.never()).searchPending(anyInt(), anyCollection(), any(Pageable.class));
+		Mockito.verify(repository, Mockito.never()).deleteByIds(any());
+		Assertions.assertEquals(2.0, meterRegistry.get("outbox.pending").gauge().value());
+		Assertions.assertTrue(meterRegistry.get("outbox.lag").gauge().value() >= 30.0);
+	}
+	
+	@Test
+	public void enqueueShouldStorePayloadAsJson() {
+		
+		service.enqueue(OutboxService.ORDER_CREATED, 10L, Map.of("id", 10));
+		
+		ArgumentCaptor<OutboxMessage> captor = ArgumentCaptor.forClass(OutboxMessage.class);
+		Mockito.verify(repository).save(captor.capture());
+		Assertions.assertEquals(OutboxService.ORDER_CREATED, captor.getValue().getType());
+		Assertions.assertEquals(10L, captor.getValue().getAggregateId());
+		Assertions.assertEquals("{\"id\":10}", captor.getValue().getPayload());
+	}
+}
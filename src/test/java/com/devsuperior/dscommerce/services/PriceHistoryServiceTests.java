@@ -0,0 +1,104 @@
+package com.devsuperior.dscommerce.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.devsuperior.dscommerce.dto.PriceHistoryDTO;
+import com.devsuperior.dscommerce.entities.PriceHistory;
+import com.devsuperior.dscommerce.repositories.PriceHistoryRepository;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+
+@ExtendWith(SpringExtension.class)
+public class PriceHistoryServiceTests {
+
+	@InjectMocks
+	private PriceHistoryService service;
+	
+	@Mock
+	private PriceHistoryRepository repository;
+	
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+	
+	private Long productId;
+	private Instant validFrom;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		productId = 1L;
+		validFrom = Instant.parse("2023-01-01T00:00:00Z");
+		
+		Mockito.when(repository.findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(productId, validFrom))
+				.thenReturn(Optional.of(new PriceHistory(1L, productId, 90.5, validFrom)));
+	}
+	
+	@Test
+	public void findPriceAtShouldQueryRepositoryBeforeTimelinesAreLoaded() {
+		
+		PriceHistoryDTO result = service.findPriceAt(productId, validFrom);
+		
+		Assertions.assertEquals(90.5, result.getPrice());
+		Assertions.assertEquals(validFrom, result.getValidFrom());
+	}
+	
+	@Test
+	public void findPriceAtShouldUseTimelineOfRecordedPricesAfterLoad() {
+		service.load();
+		Instant before = Instant.now().minusSeconds(60);
+		
+		service.record(productId, 100.0);
+		PriceHistoryDTO result = service.findPriceAt(productId, Instant.now());
+		
+		Assertions.assertEquals(100.0, result.getPrice());
+		Mockito.verify(repository).save(any());
+		Mockito.verify(repository, Mockito.never()).findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(any(), any());
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.findPriceAt(productId, before);
+		});
+	}
+	
+	@Test
+	public void loadShouldKeepPricesRecordedWhileLoading() throws Exception {
+		ResultSet rs = Mockito.mock(ResultSet.class);
+		Mockito.when(rs.getLong("product_id")).thenReturn(productId);
+		Mockito.when(rs.getTimestamp("valid_from")).thenReturn(Timestamp.from(validFrom));
+		Mockito.when(rs.getDouble("price")).thenReturn(90.5);
+		Mockito.doAnswer(invocation -> {
+			// um preço registrado enquanto a carga lê o histórico
+			service.record(productId, 100.0);
+			invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+		
+		service.load();
+		
+		Assertions.assertEquals(90.5, service.findPriceAt(productId, validFrom).getPrice());
+		Assertions.assertEquals(100.0, service.findPriceAt(productId, Instant.now()).getPrice());
+	}
+	
+	@Test
+	public void findPriceAtShouldThrowResourceNotFoundExceptionWhenProductHasNoHistory() {
+		service.load();
+		
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.findPriceAt(2L, Instant.now());
+		});
+	}
+}
@@ -38,6 +38,15 @@ public class ProductServiceTests {
 	@Mock
 	private ProductRepository repository;
 	
+	@Mock
+	private SimilarProductService similarProductService;
+	
+	@Mock
+	private PriceHistoryService priceHistoryService;
+	
+	@Mock
+	private InventoryService inventoryService;
+	
 	private long existingProductId, nonExistingProductId, dependentProductId;
 	private String productName;
 	private Product product;
@@ -111,6 +120,7 @@ public class ProductServiceTests {
 		
 		Assertions.assertNotNull(result);
 		Assertions.assertEquals(result.getId(), product.getId());
+		Mockito.verify(inventoryService).register(product.getId());
 	}
 	
 	@Test
@@ -123,6 +133,24 @@ public class ProductServiceTests {
 		Assertions.assertEquals(result.getName(), productDTO.getName());
 	}
 	
+	@Test
+	public void updateShouldRecordPriceHistoryWhenPriceChanges() {
+		
+		productDTO = new ProductDTO(product.getId(), productName, product.getDescription(), 4299.0, product.getImgUrl());
+		
+		service.update(existingProductId, productDTO);
+		
+		Mockito.verify(priceHistoryService).record(existingProductId, 4299.0);
+	}
+	
+	@Test
+	public void updateShouldNotRecordPriceHistoryWhenPriceIsUnchanged() {
+		
+		service.update(existingProductId, productDTO);
+		
+		Mockito.verify(priceHistoryService, Mockito.never()).record(any(), any());
+	}
+	
 	@Test
 	public void updateShouldReturnResourceNotFoundExceptionWhenIdDoesNotExist() {
 		
@@ -0,0 +1,110 @@
+package com.devsuperior.dscommerce.services;
+
+import static org.mockito.ArgumentMatchers.anyIterable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscommerce.dto.TopSellerDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+
+public class TopSellerServiceTests {
+
+	private TopSellerService service;
+	
+	private ProductRepository productRepository;
+	
+	private Product book, tv, notebook;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new TopSellerService(2, 60, 6);
+		
+		book = new Product(1L, "The Lord of the Rings", "", 90.5, "");
+		tv = new Product(2L, "Smart TV", "", 2190.0, "");
+		notebook = new Product(3L, "Macbook Pro", "", 1250.0, "");
+		
+		productRepository = Mockito.mock(ProductRepository.class);
+		Mockito.when(productRepository.findAllById(anyIterable())).thenReturn(List.of(book, tv, notebook));
+		ReflectionTestUtils.setField(service, "productRepository", productRepository);
+	}
+	
+	@Test
+	public void findTopSellersShouldReturnProductsOrderedByQuantity() {
+		
+		service.record(book.getId(), 1, Instant.now());
+		service.record(tv.getId(), 3, Instant.now());
+		service.record(book.getId(), 4, Instant.now());
+		
+		List<TopSellerDTO> result = service.findTopSellers();
+		
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertEquals(book.getId(), result.get(0).getId());
+		Assertions.assertEquals(5L, result.get(0).getQuantity());
+		Assertions.assertEquals(tv.getId(), result.get(1).getId());
+	}
+	
+	@Test
+	public void findTopSellersShouldKeepOnlyTopK() {
+		
+		service.record(book.getId(), 1, Instant.now());
+		service.record(tv.getId(), 2, Instant.now());
+		service.record(notebook.getId(), 3, Instant.now());
+		
+		List<TopSellerDTO> result = service.findTopSellers();
+		
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertEquals(notebook.getId(), result.get(0).getId());
+		Assertions.assertEquals(tv.getId(), result.get(1).getId());
+	}
+	
+	@Test
+	public void findTopSellersShouldPromoteProductThatOvertakesLastEntry() {
+		
+		service.record(book.getId(), 1, Instant.now());
+		service.record(tv.getId(), 2, Instant.now());
+		service.record(notebook.getId(), 1, Instant.now());
+		service.record(notebook.getId(), 5, Instant.now());
+		
+		List<TopSellerDTO> result = service.findTopSellers();
+		
+		Assertions.assertEquals(notebook.getId(), result.get(0).getId());
+		Assertions.assertEquals(tv.getId(), result.get(1).getId());
+	}
+	
+	@Test
+	public void findTopSellersShouldIgnoreSalesOutsideWindow() {
+		
+		service.record(book.getId(), 10, Instant.now().minus(Duration.ofHours(2)));
+		service.record(tv.getId(), 1, Instant.now());
+		
+		List<TopSellerDTO> result = service.findTopSellers();
+		
+		Assertions.assertEquals(1, result.size());
+		Assertions.assertEquals(tv.getId(), result.get(0).getId());
+	}
+	
+	@Test
+	public void findTopSellersShouldReturnCurrentProductData() {
+		
+		service.record(book.getId(), 2, Instant.now());
+		service.record(tv.getId(), 1, Instant.now());
+		book.setName("The Hobbit");
+		Mockito.when(productRepository.findAllById(anyIterable())).thenReturn(List.of(book));
+		
+		List<TopSellerDTO> result = service.findTopSellers();
+		
+		// a TV foi excluída depois da venda e fica fora do ranking
+		Assertions.assertEquals(1, result.size());
+		Assertions.assertEquals("The Hobbit", result.get(0).getName());
+		Assertions.assertEquals(2L, result.get(0).getQuantity());
+	}
+}
@@ -2,7 +2,12 @@ package com.devsuperior.dscommerce.services;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +19,7 @@ import org.mockito.Mockito;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.devsuperior.dscommerce.dto.UserDTO;
 import com.devsuperior.dscommerce.entities.User;
@@ -35,6 +41,9 @@ public class UserServiceTests {
 	@Mock
 	private CustomUserUtil userUtil;
 	
+	@Mock
+	private AuthorizationStoreService authorizationStoreService;
+	
 	private String existingUsername, nonExistingUsername;
 	private User user;
 	private List<UserDetailsProjection> userDetails;
@@ -72,6 +81,104 @@ public class UserServiceTests {
 		});
 	}
 	
+	@Test
+	public void loadUserByUsernameShouldQueryOnceWhileCredentialsAreCached() {
+		enableCredentialsCache();
+		
+		service.loadUserByUsername(existingUsername);
+		UserDetails result = service.loadUserByUsername(existingUsername);
+		
+		Assertions.assertEquals(existingUsername, result.getUsername());
+		Mockito.verify(repository, Mockito.times(1)).searchUserAndRolesByEmail(existingUsername);
+	}
+	
+	@Test
+	public void loadUserByUsernameShouldQueryOnceForConcurrentMisses() throws Exception {
+		enableCredentialsCache();
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.when(repository.searchUserAndRolesByEmail(existingUsername)).thenAnswer(invocation -> {
+			release.await();
+			return userDetails;
+		});
+		
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<CompletableFuture<UserDetails>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(CompletableFuture.supplyAsync(() -> service.loadUserByUsername(existingUsername), executor));
+		}
+		Thread.sleep(100);
+		release.countDown();
+		for (CompletableFuture<UserDetails> result : results) {
+			Assertions.assertEquals(existingUsername, result.get().getUsername());
+		}
+		executor.shutdown();
+		
+		Mockito.verify(repository, Mockito.times(1)).searchUserAndRolesByEmail(existingUsername);
+	}
+	
+	@Test
+	public void loadUserByUsernameShouldTrimCredentialsCacheBelowLimitWhenFull() {
+		enableCredentialsCache();
+		Mockito.when(repository.searchUserAndRolesByEmail(Mockito.anyString())).thenReturn(userDetails);
+		
+		for (int i = 0; i <= 100; i++) {
+			service.loadUserByUsername("user" + i + "@gmail.com");
+		}
+		
+		Assertions.assertEquals(90, ((Map<?, ?>) ReflectionTestUtils.getField(service, "credentials")).size());
+	}
+	
+	@Test
+	public void loadUserByUsernameShouldQueryAgainAfterEvictCredentials() {
+		enableCredentialsCache();
+		
+		service.loadUserByUsername(existingUsername);
+		service.evictCredentials(existingUsername);
+		service.loadUserByUsername(existingUsername);
+		
+		Mockito.verify(repository, Mockito.times(2)).searchUserAndRolesByEmail(existingUsername);
+	}
+	
+	@Test
+	public void loadUserByUsernameShouldNotCacheUnknownUsers() {
+		enableCredentialsCache();
+		
+		for (int i = 0; i < 2; i++) {
+			Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+				service.loadUserByUsername(nonExistingUsername);
+			});
+		}
+		
+		Mockito.verify(repository, Mockito.times(2)).searchUserAndRolesByEmail(nonExistingUsername);
+	}
+	
+	@Test
+	public void updatePasswordShouldStoreHashAndEvictCachedCredentialsWhenHashIsUnchanged() {
+		enableCredentialsCache();
+		User loaded = (User) service.loadUserByUsername(existingUsername);
+		String oldPassword = loaded.getPassword();
+		Mockito.when(repository.updatePassword(existingUsername, oldPassword, "{bcrypt}new")).thenReturn(1);
+		
+		UserDetails result = service.updatePassword(loaded, "{bcrypt}new");
+		service.loadUserByUsername(existingUsername);
+		
+		Assertions.assertEquals("{bcrypt}new", result.getPassword());
+		Mockito.verify(repository, Mockito.times(2)).searchUserAndRolesByEmail(existingUsername);
+		Mockito.verify(authorizationStoreService).revokeAll(existingUsername);
+	}
+	
+	@Test
+	public void updatePasswordShouldKeepUserWhenHashChangedMeanwhile() {
+		User loaded = (User) service.loadUserByUsername(existingUsername);
+		String oldPassword = loaded.getPassword();
+		Mockito.when(repository.updatePassword(existingUsername, oldPassword, "{bcrypt}new")).thenReturn(0);
+		
+		UserDetails result = service.updatePassword(loaded, "{bcrypt}new");
+		
+		Assertions.assertEquals(oldPassword, result.getPassword());
+		Mockito.verifyNoInteractions(authorizationStoreService);
+	}
+	
 	@Test
 	public void authenticatedShouldReturnUserWhenUserExists() {
 		
@@ -116,4 +223,9 @@ public class UserServiceTests {
 			UserDTO result = spyUserService.getMe();
 		});
 	}
+	
+	private void enableCredentialsCache() {
+		ReflectionTestUtils.setField(service, "credentialsTtlSeconds", 30L);
+		ReflectionTestUtils.setField(service, "credentialsMaxEntries", 100);
+	}
 }
@@ -0,0 +1,69 @@
+package com.devsuperior.dscommerce.services;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.devsuperior.dscommerce.dto.UserStatsDTO;
+import com.devsuperior.dscommerce.entities.OrderStatus;
+import com.devsuperior.dscommerce.entities.User;
+import com.devsuperior.dscommerce.events.OrderStatusChangedEvent;
+import com.devsuperior.dscommerce.tests.UserFactory;
+
+@ExtendWith(SpringExtension.class)
+public class UserStatsServiceTests {
+
+	@InjectMocks
+	private UserStatsService service;
+	
+	@Mock
+	private UserService userService;
+	
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+	
+	private User client;
+	private Instant first, last;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		client = UserFactory.createCustomClientUser(2L, "Bob");
+		first = Instant.parse("2023-01-01T10:00:00Z");
+		last = Instant.parse("2023-02-01T10:00:00Z");
+		
+		Mockito.when(userService.authenticated()).thenReturn(client);
+	}
+	
+	@Test
+	public void findMyStatsShouldReturnEmptyStatsWhenUserHasNoOrders() {
+		
+		UserStatsDTO result = service.findMyStats();
+		
+		Assertions.assertEquals(0L, result.getOrderCount());
+		Assertions.assertEquals(0.0, result.getTotalSpent());
+		Assertions.assertNull(result.getLastOrderMoment());
+	}
+	
+	@Test
+	public void findMyStatsShouldReflectCreatedAndPaidOrders() {
+		service.onStatusChanged(new OrderStatusChangedEvent(10L, OrderStatus.WAITING_PAYMENT, last, client.getId(), 30.5));
+		service.onStatusChanged(new OrderStatusChangedEvent(11L, OrderStatus.WAITING_PAYMENT, first, client.getId(), 19.9));
+		service.onStatusChanged(new OrderStatusChangedEvent(10L, OrderStatus.PAID, Instant.now(), client.getId(), 30.5));
+		service.onStatusChanged(new OrderStatusChangedEvent(11L, OrderStatus.CANCELED, Instant.now()));
+		service.onStatusChanged(new OrderStatusChangedEvent(12L, OrderStatus.WAITING_PAYMENT, last, 99L, 10.0));
+		
+		UserStatsDTO result = service.findMyStats();
+		
+		Assertions.assertEquals(2L, result.getOrderCount());
+		Assertions.assertEquals(30.5, result.getTotalSpent());
+		Assertions.assertEquals(last, result.getLastOrderMoment());
+	}
+}
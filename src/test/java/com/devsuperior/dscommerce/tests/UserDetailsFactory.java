@@ -48,6 +48,11 @@ class UserDetailsImpl implements UserDetailsProjection {
 		this.authority = authority;
 	}
 
+	@Override
+	public Long getUserId() {
+		return null;
+	}
+
 	@Override
 	public String getUsername() {
 		return username;
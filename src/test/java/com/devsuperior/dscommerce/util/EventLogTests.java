@@ -0,0 +1,118 @@
+package com.devsuperior.dscommerce.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EventLogTests {
+
+	@TempDir
+	Path dir;
+	
+	@Test
+	public void scannerShouldReturnRecordsInAppendOrderAcrossSegments() throws IOException {
+		
+		try (EventLog log = new EventLog(dir, 32)) {
+			for (int i = 0; i < 5; i++) {
+				log.append(("rec" + i + "abcd").getBytes(StandardCharsets.UTF_8));
+			}
+			
+			Assertions.assertEquals(3, log.segmentCount());
+			Assertions.assertEquals(List.of("rec0abcd", "rec1abcd", "rec2abcd", "rec3abcd", "rec4abcd"), scan(log));
+		}
+	}
+	
+	@Test
+	public void openShouldKeepAppendingAfterExistingRecords() throws IOException {
+		
+		try (EventLog log = new EventLog(dir, 64)) {
+			log.append(bytes("aaaa"));
+		}
+		try (EventLog log = new EventLog(dir, 64)) {
+			log.append(bytes("bbbb"));
+			
+			Assertions.assertEquals(0, log.getTruncatedBytes());
+			Assertions.assertEquals(List.of("aaaa", "bbbb"), scan(log));
+		}
+	}
+	
+	@Test
+	public void openShouldDiscardTornTail() throws IOException {
+		
+		try (EventLog log = new EventLog(dir, 64)) {
+			log.append(bytes("aaaa"));
+			log.append(bytes("bbbb"));
+		}
+		// corrompe o payload do segundo registro
+		try (FileChannel channel = FileChannel.open(dir.resolve(String.format("%020d.seg", 0)), StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(bytes("x")), 12 + 8);
+		}
+		
+		try (EventLog log = new EventLog(dir, 64)) {
+			Assertions.assertTrue(log.getTruncatedBytes() > 0);
+			Assertions.assertEquals(List.of("aaaa"), scan(log));
+			
+			Assertions.assertEquals(12, log.append(bytes("cccc")));
+			Assertions.assertEquals(List.of("aaaa", "cccc"), scan(log));
+		}
+	}
+	
+	@Test
+	public void appendShouldThrowIllegalArgumentExceptionWhenRecordDoesNotFitSegment() throws IOException {
+		
+		try (EventLog log = new EventLog(dir, 16)) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> log.append(new byte[9]));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> log.append(new byte[0]));
+		}
+	}
+	
+	@Test
+	public void openShouldThrowIllegalStateExceptionWhenLogIsAlreadyOpen() throws IOException {
+		
+		EventLog log = new EventLog(dir, 64);
+		try {
+			Assertions.assertThrows(IllegalStateException.class, () -> new EventLog(dir, 64));
+		}
+		finally {
+			log.close();
+		}
+	}
+	
+	@Test
+	public void appendShouldThrowIllegalStateExceptionWhenLogIsClosed() throws IOException {
+		
+		EventLog log = new EventLog(dir, 64);
+		log.append(bytes("aaaa"));
+		log.close();
+		log.close();
+		
+		Assertions.assertThrows(IllegalStateException.class, () -> log.append(bytes("bbbb")));
+		try (EventLog reopened = new EventLog(dir, 64)) {
+			Assertions.assertEquals(List.of("aaaa"), scan(reopened));
+		}
+	}
+	
+	private static List<String> scan(EventLog log) throws IOException {
+		List<String> result = new ArrayList<>();
+		try (EventLog.Scanner scanner = log.scanner()) {
+			byte[] record;
+			while ((record = scanner.next()) != null) {
+				result.add(new String(record, StandardCharsets.UTF_8));
+			}
+		}
+		return result;
+	}
+	
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,66 @@
+package com.devsuperior.dscommerce.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HashedTimingWheelTests {
+
+	private Instant start;
+	private HashedTimingWheel wheel;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		start = Instant.parse("2023-01-01T00:00:00Z");
+		wheel = new HashedTimingWheel(1000, 8, start);
+	}
+	
+	@Test
+	public void advanceShouldReturnOnlyExpiredIds() {
+		
+		wheel.schedule(1L, start.plusSeconds(2));
+		wheel.schedule(2L, start.plusSeconds(5));
+		
+		List<Long> result = wheel.advance(start.plusSeconds(3));
+		
+		Assertions.assertEquals(List.of(1L), result);
+		Assertions.assertEquals(List.of(2L), wheel.advance(start.plusSeconds(5)));
+		Assertions.assertTrue(wheel.advance(start.plusSeconds(6)).isEmpty());
+	}
+	
+	@Test
+	public void advanceShouldKeepDeadlinesBeyondOneRotation() {
+		
+		wheel.schedule(1L, start.plusSeconds(20));
+		
+		Assertions.assertTrue(wheel.advance(start.plusSeconds(4)).isEmpty());
+		Assertions.assertTrue(wheel.advance(start.plusSeconds(12)).isEmpty());
+		Assertions.assertEquals(List.of(1L), wheel.advance(start.plusSeconds(20)));
+	}
+	
+	@Test
+	public void advanceShouldExpireEverythingWhenManyRotationsElapsed() {
+		
+		wheel.schedule(1L, start.plusSeconds(3));
+		wheel.schedule(2L, start.plusSeconds(30));
+		wheel.advance(start.plusSeconds(1));
+		
+		List<Long> result = wheel.advance(start.plus(Duration.ofHours(1)));
+		
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertTrue(result.containsAll(List.of(1L, 2L)));
+	}
+	
+	@Test
+	public void advanceShouldExpireImmediatelyWhenDeadlineAlreadyPassed() {
+		
+		wheel.advance(start.plusSeconds(10));
+		wheel.schedule(1L, start);
+		
+		Assertions.assertEquals(List.of(1L), wheel.advance(start.plusSeconds(10)));
+	}
+}
@@ -0,0 +1,42 @@
+package com.devsuperior.dscommerce.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LongIntHashMapTests {
+
+	@Test
+	public void addToShouldAccumulateValuesPerKey() {
+		LongIntHashMap map = new LongIntHashMap();
+		
+		map.addTo(7L, 1);
+		map.addTo(7L, 2);
+		map.addTo(0L, 5);
+		
+		Assertions.assertEquals(3, map.get(7L));
+		Assertions.assertEquals(5, map.get(0L));
+		Assertions.assertEquals(0, map.get(8L));
+		Assertions.assertFalse(map.containsKey(8L));
+		Assertions.assertEquals(2, map.size());
+	}
+	
+	@Test
+	public void mapShouldMatchHashMapAfterGrowing() {
+		LongIntHashMap map = new LongIntHashMap(2);
+		Map<Long, Integer> expected = new HashMap<>();
+		Random random = new Random(42);
+		
+		for (int i = 0; i < 10000; i++) {
+			long key = random.nextInt(3000) - 1500;
+			map.addTo(key, 1);
+			expected.merge(key, 1, Integer::sum);
+		}
+		
+		Assertions.assertEquals(expected.size(), map.size());
+		map.forEach((key, value) -> Assertions.assertEquals(expected.get(key), value));
+	}
+}
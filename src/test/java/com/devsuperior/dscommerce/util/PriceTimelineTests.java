@@ -0,0 +1,50 @@
+package com.devsuperior.dscommerce.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PriceTimelineTests {
+
+	@Test
+	public void indexAtShouldReturnEntryInForceAtInstant() {
+		PriceTimeline timeline = PriceTimeline.EMPTY.append(100L, 10.0).append(200L, 20.0).append(300L, 30.0);
+		
+		Assertions.assertEquals(-1, timeline.indexAt(99L));
+		Assertions.assertEquals(10.0, timeline.price(timeline.indexAt(100L)));
+		Assertions.assertEquals(10.0, timeline.price(timeline.indexAt(199L)));
+		Assertions.assertEquals(20.0, timeline.price(timeline.indexAt(200L)));
+		Assertions.assertEquals(30.0, timeline.price(timeline.indexAt(Long.MAX_VALUE)));
+		Assertions.assertEquals(300L, timeline.validFrom(timeline.indexAt(1000L)));
+	}
+	
+	@Test
+	public void appendShouldKeepEntriesSortedAndLatestPriceForSameInstant() {
+		PriceTimeline timeline = PriceTimeline.EMPTY.append(300L, 30.0).append(100L, 10.0).append(100L, 15.0);
+		
+		Assertions.assertEquals(3, timeline.size());
+		Assertions.assertEquals(15.0, timeline.price(timeline.indexAt(150L)));
+		Assertions.assertEquals(30.0, timeline.price(timeline.indexAt(300L)));
+	}
+	
+	@Test
+	public void appendShouldNotChangeOriginalTimeline() {
+		PriceTimeline timeline = PriceTimeline.EMPTY.append(100L, 10.0);
+		
+		timeline.append(200L, 20.0);
+		
+		Assertions.assertEquals(1, timeline.size());
+		Assertions.assertEquals(0, PriceTimeline.EMPTY.size());
+	}
+	
+	@Test
+	public void mergeShouldKeepEntriesOfBothAndSharedEntriesOnce() {
+		PriceTimeline recorded = PriceTimeline.EMPTY.append(300L, 30.0);
+		PriceTimeline loaded = PriceTimeline.EMPTY.append(100L, 10.0).append(300L, 30.0);
+		
+		PriceTimeline timeline = recorded.merge(loaded);
+		
+		Assertions.assertEquals(2, timeline.size());
+		Assertions.assertEquals(10.0, timeline.price(timeline.indexAt(200L)));
+		Assertions.assertEquals(30.0, timeline.price(timeline.indexAt(300L)));
+	}
+}
@@ -0,0 +1,68 @@
+package com.devsuperior.dscommerce.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+//Benchmark: mvn test -Dbenchmark=true -Dtest=TfIdfIndexBenchmarkTests (1M produtos: -Xmx4g)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TfIdfIndexBenchmarkTests {
+
+	private static final int VOCABULARY = 50_000;
+	private static final int QUERIES = 2000;
+	
+	@Test
+	public void measureBuildAndQueryAt100kProducts() {
+		run(100_000);
+	}
+	
+	@Test
+	public void measureBuildAndQueryAt1mProducts() {
+		run(1_000_000);
+	}
+	
+	private static void run(int products) {
+		Random random = new Random(42);
+		String[] words = new String[VOCABULARY];
+		for (int i = 0; i < VOCABULARY; i++) {
+			words[i] = "w" + Integer.toString(i, 36);
+		}
+		Map<Long, String> documents = new HashMap<>(products * 2);
+		for (long id = 1; id <= products; id++) {
+			documents.put(id, document(random, words));
+		}
+		
+		long start = System.nanoTime();
+		TfIdfIndex index = TfIdfIndex.build(documents);
+		long buildMillis = (System.nanoTime() - start) / 1_000_000;
+		
+		for (int i = 0; i < QUERIES; i++) {
+			index.similar(1 + random.nextInt(products), 10);
+		}
+		long[] latencies = new long[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			long t = System.nanoTime();
+			index.similar(1 + random.nextInt(products), 10);
+			latencies[i] = System.nanoTime() - t;
+		}
+		Arrays.sort(latencies);
+		
+		System.out.printf("%d products: build %d ms, query p50 %.2f ms, p99 %.2f ms%n", products, buildMillis,
+				latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 99 / 100] / 1e6);
+	}
+	
+	// nome curto + descrição, com frequência de palavras aproximadamente Zipf
+	private static String document(Random random, String[] words) {
+		int length = 8 + random.nextInt(30);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			int rank = (int) Math.floor(Math.pow(VOCABULARY, random.nextDouble()));
+			sb.append(words[Math.min(rank, VOCABULARY - 1)]).append(' ');
+		}
+		return sb.toString();
+	}
+}
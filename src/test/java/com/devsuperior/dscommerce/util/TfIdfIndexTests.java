@@ -0,0 +1,75 @@
+package com.devsuperior.dscommerce.util;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TfIdfIndexTests {
+
+	private TfIdfIndex index;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		index = TfIdfIndex.build(Map.of(
+				1L, "Smart TV 50 polegadas 4K com HDR",
+				2L, "Smart TV 65 polegadas 4K",
+				3L, "Notebook gamer com placa de vídeo",
+				4L, "Notebook ultrafino para trabalho",
+				5L, "Cadeira gamer reclinável"));
+	}
+	
+	@Test
+	public void tokenizeShouldNormalizeAccentsCaseAndDropStopwords() {
+		
+		List<String> result = TfIdfIndex.tokenize("Placa de VÍDEO, com 8GB!");
+		
+		Assertions.assertEquals(List.of("placa", "video", "8gb"), result);
+	}
+	
+	@Test
+	public void similarShouldRankDocumentsSharingMoreDistinctiveTermsFirst() {
+		
+		long[] result = index.similar(3L, 2);
+		
+		Assertions.assertEquals(2, result.length);
+		Assertions.assertTrue(result[0] == 4L || result[0] == 5L);
+		Assertions.assertArrayEquals(new long[] { 2L }, index.similar(1L, 1));
+	}
+	
+	@Test
+	public void putShouldReplacePreviousVersionOfDocument() {
+		
+		index.put(5L, "Smart TV 43 polegadas");
+		
+		Assertions.assertEquals(5, index.size());
+		Assertions.assertEquals(0, java.util.Arrays.stream(index.similar(3L, 5)).filter(x -> x == 5L).count());
+		Assertions.assertTrue(java.util.Arrays.stream(index.similar(1L, 5)).anyMatch(x -> x == 5L));
+	}
+	
+	@Test
+	public void removeShouldHideDocumentFromResults() {
+		
+		index.remove(2L);
+		
+		Assertions.assertFalse(index.contains(2L));
+		Assertions.assertEquals(0, index.similar(2L, 3).length);
+		Assertions.assertTrue(java.util.Arrays.stream(index.similar(1L, 5)).noneMatch(x -> x == 2L));
+	}
+	
+	@Test
+	public void similarShouldReturnBestMatchesWhenManyDocumentsShareTerms() {
+		Map<Long, String> documents = new java.util.HashMap<>();
+		documents.put(1L, "Smart TV polegadas");
+		for (long id = 2; id <= 100; id++) {
+			documents.put(id, id % 10 == 0 ? "Smart TV polegadas modelo " + id : "Smart modelo " + id);
+		}
+		index = TfIdfIndex.build(documents);
+		
+		long[] result = index.similar(1L, 3);
+		
+		Assertions.assertArrayEquals(new long[] { 10L, 20L, 30L }, result);
+	}
+}
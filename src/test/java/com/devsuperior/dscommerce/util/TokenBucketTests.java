@@ -0,0 +1,55 @@
+package com.devsuperior.dscommerce.util;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	public void tryAcquireShouldAllowBurstUpToCapacityThenRefuse() {
+
+		TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+
+		Assertions.assertEquals(2, bucket.tryAcquire(0));
+		Assertions.assertEquals(1, bucket.tryAcquire(0));
+		Assertions.assertEquals(0, bucket.tryAcquire(0));
+		Assertions.assertEquals(-SECOND, bucket.tryAcquire(0));
+		Assertions.assertEquals(3 * SECOND, bucket.nanosUntilFull(0));
+	}
+
+	@Test
+	public void tryAcquireShouldRefillOneTokenPerInterval() {
+
+		TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(2), 0);
+		bucket.tryAcquire(0);
+		bucket.tryAcquire(0);
+
+		Assertions.assertEquals(-SECOND / 2, bucket.tryAcquire(SECOND / 2));
+		Assertions.assertEquals(0, bucket.tryAcquire(SECOND));
+		Assertions.assertTrue(bucket.tryAcquire(SECOND) < 0);
+	}
+
+	@Test
+	public void tryAcquireShouldNotAccumulateBeyondCapacityWhenIdle() {
+
+		TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(2), 0);
+
+		Assertions.assertTrue(bucket.isFull(100 * SECOND));
+		Assertions.assertEquals(1, bucket.tryAcquire(100 * SECOND));
+		Assertions.assertEquals(0, bucket.tryAcquire(100 * SECOND));
+		Assertions.assertTrue(bucket.tryAcquire(100 * SECOND) < 0);
+		Assertions.assertFalse(bucket.isFull(100 * SECOND));
+	}
+
+	@Test
+	public void constructorShouldThrowIllegalArgumentExceptionWhenCapacityIsNotPositive() {
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> {
+			new TokenBucket(0, Duration.ofSeconds(1), 0);
+		});
+	}
+}